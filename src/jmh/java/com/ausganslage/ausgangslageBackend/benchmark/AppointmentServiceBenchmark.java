@@ -0,0 +1,134 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import com.ausganslage.ausgangslageBackend.service.CalendarCache;
+import com.ausganslage.ausgangslageBackend.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer hot paths against a seeded dataset
+ * The profile parameter compares the in-memory default with the file-backed prod setup;
+ * run with -t and -p poolSize=... to size the connection pool under concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentServiceBenchmark {
+    @Param({ "10000", "100000" })
+    public int appointmentsPerUser;
+
+    @Param({ "3" })
+    public int users;
+
+    @Param({ "default", "prod" })
+    public String profile;
+
+    @Param({ "10" })
+    public int poolSize;
+
+    private BenchmarkApplication application;
+    private AppointmentService appointmentService;
+    private UserService userService;
+    private CalendarCache calendarCache;
+    private Long userId;
+    private long[] appointmentIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = BenchmarkApplication.start(profile,
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "spring.datasource.hikari.minimum-idle=" + poolSize);
+        for (int i = 0; i < users; i++) {
+            Long id = application.seedUser("bench" + i, appointmentsPerUser, i);
+            if (i == 0) {
+                userId = id;
+            }
+        }
+        appointmentService = application.bean(AppointmentService.class);
+        userService = application.bean(UserService.class);
+        calendarCache = application.bean(CalendarCache.class);
+        appointmentIds = application.bean(AppointmentRepository.class).findViewsByUserId(userId).stream()
+                .mapToLong(AppointmentView::id).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    /**
+     * Per-thread random source so concurrent runs don't contend on it
+     */
+    @State(Scope.Thread)
+    public static class Randomness {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Appointment createAppointment(Randomness state) throws Exception {
+        Appointment appointment = new Appointment();
+        appointment.setName("Benchmark");
+        appointment.setDescription("Created by benchmark");
+        appointment.setGenre("work");
+        appointment.setFromDate(BenchmarkApplication.randomDate(state.random));
+        appointment.setFromTime(LocalTime.of(8 + state.random.nextInt(10), 0));
+        appointment.setToTime(appointment.getFromTime().plusMinutes(30));
+        return appointmentService.createAppointment(appointment, userId, true);
+    }
+
+    @Benchmark
+    public List<AppointmentView> getUserAppointmentsCached() throws Exception {
+        return appointmentService.getUserAppointments(userId);
+    }
+
+    @Benchmark
+    public List<AppointmentView> getUserAppointmentsUncached() throws Exception {
+        calendarCache.evictUser(userId);
+        return appointmentService.getUserAppointments(userId);
+    }
+
+    @Benchmark
+    public List<AppointmentView> getUserAppointmentsByDateCached(Randomness state) throws Exception {
+        return appointmentService.getUserAppointmentsByDate(userId, BenchmarkApplication.randomDate(state.random));
+    }
+
+    @Benchmark
+    public List<AppointmentView> getUserAppointmentsByDateUncached(Randomness state) throws Exception {
+        calendarCache.evictUser(userId);
+        return appointmentService.getUserAppointmentsByDate(userId, BenchmarkApplication.randomDate(state.random));
+    }
+
+    @Benchmark
+    public AppointmentView updateAppointmentNotes(Randomness state) throws Exception {
+        long id = appointmentIds[state.random.nextInt(appointmentIds.length)];
+        return appointmentService.updateAppointmentNotes(id, "Note " + state.random.nextInt());
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        return userService.authenticate("bench0", BenchmarkApplication.PASSWORD);
+    }
+}
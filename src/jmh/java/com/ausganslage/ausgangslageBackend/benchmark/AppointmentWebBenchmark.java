@@ -0,0 +1,139 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.security.SessionTokenFilter;
+import com.ausganslage.ausgangslageBackend.service.CalendarCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * The same hot paths as AppointmentServiceBenchmark, end-to-end through MockMvc
+ * (filters, argument binding and JSON serialization included)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentWebBenchmark {
+    @Param({ "10000", "100000" })
+    public int appointmentsPerUser;
+
+    @Param({ "default" })
+    public String profile;
+
+    private BenchmarkApplication application;
+    private MockMvc mockMvc;
+    private CalendarCache calendarCache;
+    private Long userId;
+    private long[] appointmentIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // login() repeats one account's login far beyond any sane attempt limit
+        application = BenchmarkApplication.start(profile, "app.auth.rate-limit.enabled=false");
+        userId = application.seedUser("bench", appointmentsPerUser, 0);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) application.context())
+                .addFilters(application.bean(SessionTokenFilter.class))
+                .build();
+        calendarCache = application.bean(CalendarCache.class);
+        appointmentIds = application.bean(AppointmentRepository.class).findViewsByUserId(userId).stream()
+                .mapToLong(AppointmentView::id).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Randomness {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse createAppointment(Randomness state) throws Exception {
+        String body = "{\"name\":\"Benchmark\",\"description\":\"Created by benchmark\",\"genre\":\"work\","
+                + "\"fromDate\":\"" + BenchmarkApplication.randomDate(state.random) + "\","
+                + "\"fromTime\":\"" + String.format("%02d:00", 8 + state.random.nextInt(10)) + "\"}";
+        return perform(post("/api/appointments").param("userId", userId.toString())
+                .param("allowOverlap", "true")
+                .contentType(MediaType.APPLICATION_JSON).content(body), 201);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse getUserAppointmentsCached() throws Exception {
+        return perform(get("/api/appointments/user/{userId}", userId), 200);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse getUserAppointmentsUncached() throws Exception {
+        calendarCache.evictUser(userId);
+        return perform(get("/api/appointments/user/{userId}", userId), 200);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse getUserAppointmentsByDateCached(Randomness state) throws Exception {
+        return perform(get("/api/appointments/user/{userId}/date/{date}", userId,
+                BenchmarkApplication.randomDate(state.random)), 200);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse getUserAppointmentsByDateUncached(Randomness state) throws Exception {
+        calendarCache.evictUser(userId);
+        return perform(get("/api/appointments/user/{userId}/date/{date}", userId,
+                BenchmarkApplication.randomDate(state.random)), 200);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse updateAppointmentNotes(Randomness state) throws Exception {
+        long id = appointmentIds[state.random.nextInt(appointmentIds.length)];
+        return perform(put("/api/appointments/{id}/notes", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"notes\":\"Note " + state.random.nextInt() + "\"}"), 200);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse login() throws Exception {
+        return perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"bench\",\"password\":\"" + BenchmarkApplication.PASSWORD + "\"}"), 200);
+    }
+
+    /**
+     * Fail fast on an unexpected status so a broken endpoint can't report a fast error path as a result
+     */
+    private MockHttpServletResponse perform(RequestBuilder request, int expectedStatus) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        if (response.getStatus() != expectedStatus) {
+            throw new IllegalStateException("Unexpected status " + response.getStatus() + ": "
+                    + response.getContentAsString());
+        }
+        return response;
+    }
+}
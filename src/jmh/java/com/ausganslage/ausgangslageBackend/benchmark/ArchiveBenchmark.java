@@ -0,0 +1,99 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentPage;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.service.AppointmentArchive;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calendar reads around today as the stored history grows, with past appointments left in
+ * place or moved to the archive; pastMonth reads two years back and reaches into the archive
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArchiveBenchmark {
+    private static final int FUTURE_DAYS = 90;
+
+    @Param({ "2", "10" })
+    public int historyYears;
+
+    @Param({ "10000" })
+    public int appointmentsPerYear;
+
+    @Param({ "4" })
+    public int users;
+
+    @Param({ "false", "true" })
+    public boolean archived;
+
+    @Param({ "default", "prod" })
+    public String profile;
+
+    private BenchmarkApplication application;
+    private AppointmentService appointmentService;
+    private Long userId;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // The scheduled run is kept out of the way; the setup archives explicitly
+        application = BenchmarkApplication.start(profile, "app.archive.enabled=" + archived,
+                "app.archive.cron=-");
+        today = LocalDate.now();
+        int days = historyYears * 365 + FUTURE_DAYS;
+        LocalDate firstDate = today.minusDays(historyYears * 365L);
+        for (int i = 0; i < users; i++) {
+            Long id = application.seedUser("bench" + i, appointmentsPerYear * historyYears / users, i,
+                    firstDate, days);
+            if (i == 0) {
+                userId = id;
+            }
+        }
+        if (archived) {
+            application.bean(AppointmentArchive.class).archivePastAppointments();
+        }
+        appointmentService = application.bean(AppointmentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @Benchmark
+    public List<AppointmentView> currentMonth() throws Exception {
+        return appointmentService.getUserAppointmentsInRange(userId, today.minusDays(15), today.plusDays(15));
+    }
+
+    @Benchmark
+    public AppointmentPage upcomingPage() throws Exception {
+        return appointmentService.getUserAppointmentsPage(userId, today, null, null, 50);
+    }
+
+    @Benchmark
+    public List<AppointmentView> pastMonth() throws Exception {
+        LocalDate from = today.minusYears(2);
+        return appointmentService.getUserAppointmentsInRange(userId, from, from.plusDays(30));
+    }
+}
@@ -0,0 +1,140 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.AusgangslageBackendApplication;
+import com.ausganslage.ausgangslageBackend.dto.ImportReport;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.security.PasswordHasher;
+import com.ausganslage.ausgangslageBackend.service.AppointmentImportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Boots the application for benchmarks and seeds a reproducible dataset
+ * Profile "default" is the in-memory H2 setup, "prod" the file-backed one in a temp directory.
+ */
+final class BenchmarkApplication implements AutoCloseable {
+    static final String PASSWORD = "benchmark-password";
+    static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    static final int DAYS = 3 * 365;
+
+    private static final String[] GENRES = { "work", "sport", "family", "health", "travel" };
+
+    private final ConfigurableApplicationContext context;
+    private final Path dataDirectory;
+
+    private BenchmarkApplication(ConfigurableApplicationContext context, Path dataDirectory) {
+        this.context = context;
+        this.dataDirectory = dataDirectory;
+    }
+
+    static BenchmarkApplication start(String profile, String... properties) throws IOException {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        Path dataDirectory = null;
+        if ("prod".equals(profile)) {
+            dataDirectory = Files.createTempDirectory("ausgangslage-bench");
+            args.add("--spring.profiles.active=prod");
+            args.add("--spring.datasource.url=jdbc:h2:file:" + dataDirectory.resolve("db")
+                    + ";DB_CLOSE_ON_EXIT=FALSE;QUERY_CACHE_SIZE=64");
+        } else {
+            args.add("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID());
+        }
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AusgangslageBackendApplication.class)
+                .run(args.toArray(String[]::new));
+        return new BenchmarkApplication(context, dataDirectory);
+    }
+
+    ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Create a user with PASSWORD and import the given number of appointments through the bulk import path
+     */
+    Long seedUser(String username, int appointments, long seed) throws Exception {
+        return seedUser(username, appointments, seed, FIRST_DATE, DAYS);
+    }
+
+    /**
+     * Create a user with PASSWORD and appointments spread over days days from firstDate
+     */
+    Long seedUser(String username, int appointments, long seed, LocalDate firstDate, int days) throws Exception {
+        UserAccount user = new UserAccount();
+        user.setUsername(username);
+        user.setPassword(bean(PasswordHasher.class).hash(PASSWORD));
+        Long userId = bean(UserRepository.class).save(user).getId();
+        if (appointments > 0) {
+            ImportReport report = bean(AppointmentImportService.class)
+                    .importAppointments(userId, new ByteArrayInputStream(ndjson(appointments, seed, firstDate, days)));
+            if (report.failed() > 0) {
+                throw new IllegalStateException("Seeding failed for " + report.failed() + " rows: " + report.errors());
+            }
+        }
+        return userId;
+    }
+
+    /**
+     * NDJSON for appointments spread over DAYS days, mostly half-hour slots between 08:00 and 18:00
+     */
+    static byte[] ndjson(int appointments, long seed) {
+        return ndjson(appointments, seed, FIRST_DATE, DAYS);
+    }
+
+    static byte[] ndjson(int appointments, long seed, LocalDate firstDate, int days) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder body = new StringBuilder(appointments * 160);
+        for (int i = 0; i < appointments; i++) {
+            body.append("{\"name\":\"Appointment ").append(i)
+                    .append("\",\"description\":\"Seeded appointment ").append(i)
+                    .append("\",\"genre\":\"").append(GENRES[random.nextInt(GENRES.length)])
+                    .append("\",\"fromDate\":\"").append(firstDate.plusDays(random.nextInt(days))).append('"');
+            if (random.nextInt(10) > 0) {
+                int start = 16 + random.nextInt(20);
+                int end = start + 1 + random.nextInt(4);
+                body.append(",\"fromTime\":\"").append(slot(start))
+                        .append("\",\"toTime\":\"").append(slot(end)).append('"');
+            }
+            body.append("}\n");
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static LocalDate randomDate(SplittableRandom random) {
+        return FIRST_DATE.plusDays(random.nextInt(DAYS));
+    }
+
+    private static String slot(int halfHour) {
+        return String.format("%02d:%02d", halfHour / 2, halfHour % 2 * 30);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        if (dataDirectory != null) {
+            FileSystemUtils.deleteRecursively(dataDirectory);
+        }
+    }
+}
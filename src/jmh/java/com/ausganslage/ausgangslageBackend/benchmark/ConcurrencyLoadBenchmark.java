@@ -0,0 +1,92 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test over real HTTP: 1000 concurrent clients (JMH threads) read uncached date ranges,
+ * so every request blocks on JDBC. Compares the platform-thread default with the
+ * virtual-threads profile (Java 21+, mvn -Pbenchmark,virtual-threads); SampleTime reports p99,
+ * Throughput requests/s.
+ * Change the client count with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(1000)
+@Fork(1)
+public class ConcurrencyLoadBenchmark {
+    @Param({ "default", "virtual-threads" })
+    public String threading;
+
+    @Param({ "10000" })
+    public int appointmentsPerUser;
+
+    private BenchmarkApplication application;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if ("virtual-threads".equals(threading) && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("The virtual-threads profile needs Java 21+, running on "
+                    + Runtime.version());
+        }
+        application = BenchmarkApplication.start("default",
+                "spring.profiles.active=" + threading);
+        Long userId = application.seedUser("load", appointmentsPerUser, 11);
+        baseUrl = "http://localhost:" + application.context().getEnvironment().getProperty("local.server.port")
+                + "/api/appointments/user/" + userId + "/range";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Randomness {
+        final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public int readWeek(Randomness state) throws Exception {
+        LocalDate from = BenchmarkApplication.randomDate(state.random);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?from=" + from + "&to=" + from.plusDays(6)))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,74 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.dto.ImportReport;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.service.AppointmentImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import throughput: each invocation imports the whole file for a fresh user
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportBenchmark {
+    @Param({ "100000" })
+    public int rows;
+
+    @Param({ "default", "prod" })
+    public String profile;
+
+    private BenchmarkApplication application;
+    private AppointmentImportService importService;
+    private byte[] body;
+    private Long userId;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = BenchmarkApplication.start(profile);
+        importService = application.bean(AppointmentImportService.class);
+        body = BenchmarkApplication.ndjson(rows, 7);
+    }
+
+    @Setup(Level.Invocation)
+    public void createUser() {
+        UserAccount user = new UserAccount();
+        user.setUsername("import" + invocation++);
+        user.setPassword("unused");
+        userId = application.bean(UserRepository.class).save(user).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @Benchmark
+    public ImportReport importAppointments() throws Exception {
+        ImportReport report = importService.importAppointments(userId, new ByteArrayInputStream(body));
+        if (report.imported() != rows) {
+            throw new IllegalStateException("Imported " + report.imported() + " of " + rows + ": " + report.errors());
+        }
+        return report;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.exception.RateLimitedException;
+import com.ausganslage.ausgangslageBackend.security.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-attempt cost of the login rate limiter with 4 threads: all on one hot key (one CAS
+ * target), spread over many keys, and a credential-stuffing burst that is mostly rejected
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoginRateLimiterBenchmark {
+    private static final int KEYS = 50_000;
+
+    private LoginRateLimiter unlimited;
+    private LoginRateLimiter strict;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        // Limits high enough that every attempt is admitted, so only the bookkeeping is measured
+        unlimited = new LoginRateLimiter(true, Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofDays(1),
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofDays(1), 100_000, new SimpleMeterRegistry());
+        strict = new LoginRateLimiter(true, 30, 10, Duration.ofMinutes(1),
+                10, 5, Duration.ofMinutes(1), 100_000, new SimpleMeterRegistry());
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "user" + i;
+        }
+    }
+
+    @Benchmark
+    public void hotKey() throws RateLimitedException {
+        unlimited.acquire("203.0.113.7", "eliza");
+    }
+
+    @Benchmark
+    public void spreadKeys() throws RateLimitedException {
+        String key = keys[ThreadLocalRandom.current().nextInt(KEYS)];
+        unlimited.acquire(key, key);
+    }
+
+    @Benchmark
+    public boolean stuffingBurst() {
+        try {
+            strict.acquire("198.51.100.23", keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+            return true;
+        } catch (RateLimitedException e) {
+            return false;
+        }
+    }
+}
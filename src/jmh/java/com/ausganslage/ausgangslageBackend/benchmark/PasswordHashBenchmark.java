@@ -0,0 +1,46 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.security.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins per second for each BCrypt cost, to choose app.auth.bcrypt-cost
+ * Run with -t to include contention on the bounded hashing pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class PasswordHashBenchmark {
+    @Param({ "8", "10", "12" })
+    public int cost;
+
+    private PasswordHasher passwordHasher;
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        passwordHasher = new PasswordHasher(cost, 0, 1024, Duration.ofMinutes(1));
+        storedHash = passwordHasher.hash(BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public PasswordHasher.Verification verify() throws Exception {
+        return passwordHasher.verify(BenchmarkApplication.PASSWORD, storedHash);
+    }
+}
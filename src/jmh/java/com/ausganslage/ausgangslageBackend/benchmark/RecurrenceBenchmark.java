@@ -0,0 +1,86 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.Recurrence;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import com.ausganslage.ausgangslageBackend.service.CalendarCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a window of a calendar with recurring series; latency should stay flat
+ * as the series get older because expansion only covers the requested window
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecurrenceBenchmark {
+    private static final LocalDate WINDOW_START = LocalDate.of(2030, 6, 1);
+
+    @Param({ "0", "10", "50" })
+    public int seriesAgeYears;
+
+    @Param({ "20" })
+    public int series;
+
+    private BenchmarkApplication application;
+    private AppointmentService appointmentService;
+    private CalendarCache calendarCache;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = BenchmarkApplication.start("default");
+        userId = application.seedUser("recurring", 1000, 3);
+        appointmentService = application.bean(AppointmentService.class);
+        calendarCache = application.bean(CalendarCache.class);
+
+        LocalDate start = WINDOW_START.minusYears(seriesAgeYears);
+        for (int i = 0; i < series; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setName("Series " + i);
+            appointment.setDescription("Recurring benchmark series");
+            appointment.setGenre("work");
+            appointment.setFromDate(start.plusDays(i));
+            appointment.setFromTime(LocalTime.of(7 + i % 12, 0));
+            appointment.setRecurrence(i % 2 == 0 ? Recurrence.WEEKLY : Recurrence.MONTHLY);
+            appointmentService.createAppointment(appointment, userId, true);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @Benchmark
+    public List<AppointmentView> monthInRange() throws Exception {
+        return appointmentService.getUserAppointmentsInRange(userId, WINDOW_START, WINDOW_START.plusDays(30));
+    }
+
+    @Benchmark
+    public List<AppointmentView> dayUncached() throws Exception {
+        calendarCache.evictUser(userId);
+        return appointmentService.getUserAppointmentsByDate(userId, WINDOW_START.plusDays(9));
+    }
+}
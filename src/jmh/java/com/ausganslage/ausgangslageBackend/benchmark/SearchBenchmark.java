@@ -0,0 +1,71 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import com.ausganslage.ausgangslageBackend.dto.SearchPage;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranked search over one large user's appointments: a selective query, a broad prefix
+ * query, and a search right after an edit (one dirty document re-read first)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int appointments;
+
+    private BenchmarkApplication application;
+    private AppointmentService appointmentService;
+    private Long userId;
+    private Long editedId;
+    private long edits;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = BenchmarkApplication.start("default");
+        userId = application.seedUser("search", appointments, 11);
+        appointmentService = application.bean(AppointmentService.class);
+        // Build the index outside the measurement
+        editedId = appointmentService.searchAppointments(userId, "seeded", 0, 1).hits().get(0).appointment().id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @Benchmark
+    public SearchPage selective() throws Exception {
+        return appointmentService.searchAppointments(userId, "appointment 4711", 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage broadPrefix() throws Exception {
+        return appointmentService.searchAppointments(userId, "seeded wo", 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage afterEdit() throws Exception {
+        appointmentService.updateAppointmentNotes(editedId, "benchmark edit " + edits++);
+        return appointmentService.searchAppointments(userId, "benchmark edit", 0, 20);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold application startup per profile; every fork is a fresh JVM, so the first
+ * (and only) invocation per fork is a true cold start. fastStart adds the fast-start profile;
+ * firstRequest also logs in and lists appointments over HTTP, which is where lazily created
+ * beans are paid for. Run the AOT/CDS build (mvn -Pfast-start package) separately, it needs the jar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+    @Param({ "default", "prod" })
+    public String profile;
+
+    @Param({ "false", "true" })
+    public boolean fastStart;
+
+    private BenchmarkApplication application;
+
+    @Benchmark
+    public Object start() throws Exception {
+        application = fastStart
+                ? BenchmarkApplication.start(profile, "spring.profiles.include=fast-start")
+                : BenchmarkApplication.start(profile);
+        return application;
+    }
+
+    @Benchmark
+    public int firstRequest() throws Exception {
+        start();
+        Long userId = application.seedUser("startup", 0, 0);
+        String base = "http://localhost:"
+                + ((WebServerApplicationContext) application.context()).getWebServer().getPort();
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"startup\",\"password\":\"" + BenchmarkApplication.PASSWORD + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String token = login.body().replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+        HttpResponse<Void> list = client.send(HttpRequest.newBuilder(URI.create(base + "/api/appointments/user/" + userId))
+                .header("Authorization", "Bearer " + token)
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (list.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected response " + login.statusCode() + "/" + list.statusCode());
+        }
+        return list.statusCode();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws Exception {
+        if (application != null) {
+            application.close();
+            application = null;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ausganslage.ausgangslageBackend.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Serialization CPU and bytes on the wire of one cached appointment list per representation
+ * (JSON as before, CBOR, columnar JSON and columnar CBOR). gzip=true adds the deflate step the
+ * server applies when the client accepts it. The response size is reported as the bytes
+ * secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+    @Param({ "1000" })
+    public int appointments;
+
+    @Param({ "application/json", "application/cbor", "application/vnd.ausgangslage.rows+json",
+            "application/vnd.ausgangslage.rows+cbor" })
+    public String accept;
+
+    @Param({ "false", "true" })
+    public boolean gzip;
+
+    private BenchmarkApplication application;
+    private MockMvc mockMvc;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = BenchmarkApplication.start("default");
+        userId = application.seedUser("bench", appointments, 0);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) application.context()).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    /**
+     * Size of one response, reported next to the timing; set rather than summed per call
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+        public long bytes;
+    }
+
+    @Benchmark
+    public long listAppointments(WireSize size) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/appointments/user/{userId}", userId)
+                .header(HttpHeaders.ACCEPT, accept)).andReturn().getResponse();
+        if (response.getStatus() != 200 || !accept.equals(response.getContentType())) {
+            throw new IllegalStateException("Unexpected response " + response.getStatus() + " "
+                    + response.getContentType());
+        }
+        byte[] body = response.getContentAsByteArray();
+        size.bytes = body.length;
+        if (gzip) {
+            CountingOutputStream wire = new CountingOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(wire)) {
+                out.write(body);
+            }
+            size.bytes = wire.count;
+        }
+        return size.bytes;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count += len;
+        }
+    }
+}
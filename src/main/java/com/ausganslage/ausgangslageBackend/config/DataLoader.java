@@ -2,23 +2,44 @@ package com.ausganslage.ausgangslageBackend.config;
 
 import com.ausganslage.ausgangslageBackend.model.UserAccount;
 import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.security.PasswordHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 /**
  * DataLoader initializes the database with two default users: "eliza" and
  * "admin"
+ * With app.startup.background-warmup, StartupWarmup seeds after startup instead.
  */
 @Component
 public class DataLoader implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
+
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final boolean background;
 
-    public DataLoader(UserRepository userRepository) {
+    public DataLoader(UserRepository userRepository, PasswordHasher passwordHasher,
+            @Value("${app.startup.background-warmup:false}") boolean background) {
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.background = background;
     }
 
     @Override
     public void run(String... args) {
+        if (!background) {
+            seed();
+        }
+    }
+
+    /**
+     * Create the default users if there are no users yet
+     */
+    public void seed() {
         try {
             // Only seed if database is empty
             if (userRepository.count() > 0) {
@@ -30,8 +51,7 @@ public class DataLoader implements CommandLineRunner {
             createUser("admin", "admin123");
 
         } catch (Exception e) {
-            System.err.println("Error loading initial data: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading initial data", e);
         }
     }
 
@@ -42,12 +62,12 @@ public class DataLoader implements CommandLineRunner {
         try {
             UserAccount user = new UserAccount();
             user.setUsername(username);
-            user.setPassword(password);
+            user.setPassword(passwordHasher.hash(password));
             UserAccount saved = userRepository.save(user);
-            System.out.println("Created user: " + username);
+            log.info("Created user: {}", username);
             return saved;
         } catch (Exception e) {
-            System.err.println("Error creating user " + username + ": " + e.getMessage());
+            log.error("Error creating user {}: {}", username, e.getMessage());
             throw new RuntimeException("Failed to create user", e);
         }
     }
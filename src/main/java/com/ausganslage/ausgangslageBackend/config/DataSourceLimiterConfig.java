@@ -0,0 +1,53 @@
+package com.ausganslage.ausgangslageBackend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the primary DataSource in a {@link ConcurrencyLimitingDataSource} when
+ * app.datasource.max-concurrency is positive (enabled by the virtual-threads profile)
+ */
+@Configuration
+@ConditionalOnExpression("${app.datasource.max-concurrency:0} > 0")
+public class DataSourceLimiterConfig {
+    // Other DataSource beans keep their own limits
+    private static final String PRIMARY_DATA_SOURCE = "dataSource";
+
+    @Bean
+    static BeanPostProcessor dataSourceConcurrencyLimiter(Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxConcurrency = environment.getRequiredProperty("app.datasource.max-concurrency", Integer.class);
+        Duration acquireTimeout = environment.getProperty("app.datasource.acquire-timeout", Duration.class,
+                Duration.ofSeconds(5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!PRIMARY_DATA_SOURCE.equals(beanName) || !(bean instanceof DataSource dataSource)
+                        || bean instanceof ConcurrencyLimitingDataSource) {
+                    return bean;
+                }
+                ConcurrencyLimitingDataSource limited =
+                        new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, acquireTimeout);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("app.datasource.limiter.waiting", limited, ConcurrencyLimitingDataSource::getQueueLength)
+                            .description("Threads waiting for a database permit")
+                            .register(registry);
+                    Gauge.builder("app.datasource.limiter.available", limited,
+                            ConcurrencyLimitingDataSource::getAvailablePermits)
+                            .description("Free database permits")
+                            .register(registry);
+                });
+                return limited;
+            }
+        };
+    }
+}
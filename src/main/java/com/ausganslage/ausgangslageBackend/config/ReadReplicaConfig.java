@@ -0,0 +1,51 @@
+package com.ausganslage.ausgangslageBackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the single DataSource with a {@link ReplicaRoutingDataSource} when
+ * app.datasource.replica.url is set. Both pools take spring.datasource.hikari.*;
+ * app.datasource.replica.hikari.* overrides settings for the replica pool only.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isEmpty()")
+public class ReadReplicaConfig {
+
+    @Bean
+    DataSource dataSource(DataSourceProperties properties, Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(environment.getRequiredProperty("app.datasource.replica.url"))
+                .username(environment.getProperty("app.datasource.replica.username", properties.determineUsername()))
+                .password(environment.getProperty("app.datasource.replica.password", properties.determinePassword()))
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName((primary.getPoolName() != null ? primary.getPoolName() : "primary") + "-replica");
+        replica.setReadOnly(true);
+        binder.bind("app.datasource.replica.hikari", Bindable.ofInstance(replica));
+        // Boot only instruments DataSource beans; the primary is reached through this one
+        meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(
+                new MicrometerMetricsTrackerFactory(registry)));
+
+        return new ReplicaRoutingDataSource(primary, replica);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ausganslage.ausgangslageBackend.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * <p>
+ * Connections are fetched lazily, on the first statement, when the transaction's read-only
+ * flag is already known. A read-only transaction that must see the caller's own recent writes
+ * calls {@link #requirePrimary()} before its first statement and stays on the primary.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    private static final String PRIMARY_REQUIRED = ReplicaRoutingDataSource.class.getName() + ".primaryRequired";
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        super(primary);
+        this.primary = primary;
+        this.replica = replica;
+        ReadOnlyRouting readOnlyRouting = new ReadOnlyRouting();
+        readOnlyRouting.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        readOnlyRouting.afterPropertiesSet();
+        setReadOnlyDataSource(readOnlyRouting);
+    }
+
+    /**
+     * Keep the current read-only transaction on the primary; no-op outside a transaction
+     */
+    public static void requirePrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(PRIMARY_REQUIRED)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PRIMARY_REQUIRED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PRIMARY_REQUIRED);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        closeIfPossible(replica);
+        closeIfPossible(primary);
+    }
+
+    private static void closeIfPossible(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // Shutting down anyway
+            }
+        }
+    }
+
+    private enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final class ReadOnlyRouting extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.hasResource(PRIMARY_REQUIRED) ? Target.PRIMARY : Target.REPLICA;
+        }
+    }
+}
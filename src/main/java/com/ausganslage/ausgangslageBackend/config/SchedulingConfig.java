@@ -0,0 +1,12 @@
+package com.ausganslage.ausgangslageBackend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. session token key reloading)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,23 @@
+package com.ausganslage.ausgangslageBackend.config;
+
+import com.ausganslage.ausgangslageBackend.security.SessionUserInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Checks the user named by /api requests against the session token
+ */
+@Configuration
+public class SessionConfig implements WebMvcConfigurer {
+    private final SessionUserInterceptor sessionUserInterceptor;
+
+    public SessionConfig(SessionUserInterceptor sessionUserInterceptor) {
+        this.sessionUserInterceptor = sessionUserInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sessionUserInterceptor).addPathPatterns("/api/**");
+    }
+}
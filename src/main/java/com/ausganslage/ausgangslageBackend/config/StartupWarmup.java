@@ -0,0 +1,99 @@
+package com.ausganslage.ausgangslageBackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Warm-up off the startup path (app.startup.background-warmup, set by the fast-start profile).
+ * <p>
+ * Once the application is started, a background thread seeds the default users, creates the
+ * beans lazy initialization left out and sends one request through the server, which initializes
+ * the dispatcher. Until then this indicator reports OUT_OF_SERVICE; the fast-start profile puts it
+ * into the readiness group, so /actuator/health/readiness turns UP only when the instance is warm.
+ */
+@Component
+public class StartupWarmup implements HealthIndicator {
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final DataLoader dataLoader;
+    private final boolean enabled;
+    private volatile boolean warm;
+
+    public StartupWarmup(DataLoader dataLoader,
+            @Value("${app.startup.background-warmup:false}") boolean enabled) {
+        this.dataLoader = dataLoader;
+        this.enabled = enabled;
+        this.warm = !enabled;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (enabled && !warm) {
+            Thread thread = new Thread(() -> warmUp(event.getApplicationContext()), "startup-warmup");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public Health health() {
+        return warm ? Health.up().build() : Health.outOfService().withDetail("reason", "warming up").build();
+    }
+
+    private void warmUp(ConfigurableApplicationContext context) {
+        long started = System.nanoTime();
+        try {
+            dataLoader.seed();
+            createSingletons(context);
+            requestThroughServer(context);
+            log.info("Warm {} ms after startup", (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            // A cold instance still serves; keeping it out of rotation would not make it warmer
+            if (context.isActive()) {
+                log.warn("Startup warm-up incomplete", e);
+            }
+        } finally {
+            warm = true;
+        }
+    }
+
+    private static void createSingletons(ConfigurableApplicationContext context) {
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            // Stop when the application shuts down before warm-up has finished
+            if (!context.isActive()) {
+                return;
+            }
+            BeanDefinition definition = beanFactory.getMergedBeanDefinition(name);
+            if (definition.isSingleton() && !definition.isAbstract()) {
+                beanFactory.getBean(name);
+            }
+        }
+    }
+
+    private static void requestThroughServer(ConfigurableApplicationContext context) throws Exception {
+        if (context instanceof WebServerApplicationContext web && web.getWebServer() != null) {
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + web.getWebServer().getPort() + "/actuator/health/liveness"))
+                    .timeout(Duration.ofSeconds(10))
+                    .build();
+            HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ausganslage.ausgangslageBackend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Refuses to start the virtual-threads profile on platform threads: before Java 21 Spring Boot
+ * ignores spring.threads.virtual.enabled, and the profile would only add the JDBC limiter.
+ * Build with mvn -Pvirtual-threads and run on Java 21+.
+ */
+@Configuration
+@Profile("virtual-threads")
+@ConditionalOnThreading(Threading.PLATFORM)
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        throw new IllegalStateException("The virtual-threads profile needs Java 21+ with "
+                + "spring.threads.virtual.enabled=true, running on " + Runtime.version());
+    }
+}
@@ -0,0 +1,28 @@
+package com.ausganslage.ausgangslageBackend.config;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentRows;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+/**
+ * CBOR responses for clients sending Accept: application/cbor, from an ObjectMapper with the
+ * same Boot customizations as the JSON one; also writes columnar appointment lists as CBOR
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        MappingJackson2CborHttpMessageConverter converter = new MappingJackson2CborHttpMessageConverter(
+                builder.createXmlMapper(false).factory(new CBORFactory()).build());
+        converter.setSupportedMediaTypes(List.of(MediaType.APPLICATION_CBOR,
+                MediaType.parseMediaType(AppointmentRows.CBOR_MEDIA_TYPE)));
+        return converter;
+    }
+}
@@ -1,16 +1,51 @@
 package com.ausganslage.ausgangslageBackend.controller;
 
+import com.ausganslage.ausgangslageBackend.dto.AppointmentPage;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentRows;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.dto.BatchDeleteRequest;
+import com.ausganslage.ausgangslageBackend.dto.FreeSlot;
+import com.ausganslage.ausgangslageBackend.dto.GenreBucketCount;
+import com.ausganslage.ausgangslageBackend.dto.IdempotentResponse;
+import com.ausganslage.ausgangslageBackend.dto.ImportReport;
+import com.ausganslage.ausgangslageBackend.dto.NotesPatch;
+import com.ausganslage.ausgangslageBackend.dto.NotesUpdate;
+import com.ausganslage.ausgangslageBackend.dto.SearchPage;
+import com.ausganslage.ausgangslageBackend.dto.StatsBucket;
+import com.ausganslage.ausgangslageBackend.exception.AccessDeniedException;
+import com.ausganslage.ausgangslageBackend.exception.AppointmentConflictException;
+import com.ausganslage.ausgangslageBackend.exception.FeedUnavailableException;
+import com.ausganslage.ausgangslageBackend.exception.IdempotencyKeyInProgressException;
+import com.ausganslage.ausgangslageBackend.exception.IdempotencyKeyReusedException;
 import com.ausganslage.ausgangslageBackend.exception.InvalidAppointmentDataException;
+import com.ausganslage.ausgangslageBackend.exception.StaleVersionException;
 import com.ausganslage.ausgangslageBackend.exception.UserNotFoundException;
+import com.ausganslage.ausgangslageBackend.metrics.ConditionalRequestMetrics;
+import com.ausganslage.ausgangslageBackend.metrics.ErrorMetrics;
 import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.service.AppointmentExportService;
+import com.ausganslage.ausgangslageBackend.service.AppointmentImportService;
 import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import com.ausganslage.ausgangslageBackend.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -20,28 +55,84 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/appointments")
 public class AppointmentController {
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String END_OF_DAY = "24:00";
+
     private final AppointmentService appointmentService;
+    private final AppointmentImportService appointmentImportService;
+    private final AppointmentExportService appointmentExportService;
+    private final ObjectMapper objectMapper;
+    private final ErrorMetrics errorMetrics;
+    private final ConditionalRequestMetrics conditionalRequestMetrics;
+    private final IdempotencyService idempotencyService;
 
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService,
+            AppointmentImportService appointmentImportService,
+            AppointmentExportService appointmentExportService,
+            ObjectMapper objectMapper,
+            ErrorMetrics errorMetrics,
+            ConditionalRequestMetrics conditionalRequestMetrics,
+            IdempotencyService idempotencyService) {
         this.appointmentService = appointmentService;
+        this.appointmentImportService = appointmentImportService;
+        this.appointmentExportService = appointmentExportService;
+        this.objectMapper = objectMapper;
+        this.errorMetrics = errorMetrics;
+        this.conditionalRequestMetrics = conditionalRequestMetrics;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * Create new appointment
+     * Overlapping an existing appointment is rejected unless allowOverlap is set.
+     * With an Idempotency-Key header, a repeated request gets the first response instead of
+     * creating another appointment; reusing the key for a different request is rejected.
      */
     @PostMapping
     public ResponseEntity<?> createAppointment(@RequestBody Appointment appointment,
-            @RequestParam Long userId) {
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "false") boolean allowOverlap,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return create(appointment, userId, allowOverlap);
+        }
+        try {
+            String fingerprint = idempotencyService.fingerprint(new Object[] { appointment, allowOverlap });
+            IdempotentResponse response = idempotencyService.execute(userId, idempotencyKey, fingerprint,
+                    () -> recorded(create(appointment, userId, allowOverlap)));
+            return ResponseEntity.status(response.status())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(response.body());
+
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (IdempotencyKeyReusedException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (IdempotencyKeyInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error creating appointment: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> create(Appointment appointment, Long userId, boolean allowOverlap) {
         try {
             if (appointment == null) {
                 return ResponseEntity.badRequest().body(Map.of("message", "Appointment data required"));
             }
-            Appointment saved = appointmentService.createAppointment(appointment, userId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+            Appointment saved = appointmentService.createAppointment(appointment, userId, allowOverlap);
+            return ResponseEntity.status(HttpStatus.CREATED).body(AppointmentView.of(saved));
 
         } catch (InvalidAppointmentDataException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (AppointmentConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
@@ -51,14 +142,106 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Response as recorded for an Idempotency-Key, with the body in JSON
+     */
+    private IdempotentResponse recorded(ResponseEntity<?> response) {
+        try {
+            return new IdempotentResponse(response.getStatusCode().value(),
+                    objectMapper.writeValueAsString(response.getBody()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Bulk import appointments from a JSON array or NDJSON body
+     * Returns a per-row error report; valid rows are imported even if others fail
+     */
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<?> importAppointments(@RequestParam Long userId, InputStream body) {
+        try {
+            ImportReport report = appointmentImportService.importAppointments(userId, body);
+            return ResponseEntity.ok(report);
+
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error importing appointments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream a user's full appointment history as NDJSON (default) or CSV
+     * Errors are detected before streaming starts and returned as JSON.
+     */
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(@PathVariable Long userId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            AppointmentExportService.Format exportFormat = AppointmentExportService.Format.parse(format);
+            appointmentExportService.requireUser(userId);
+            StreamingResponseBody body = out -> appointmentExportService.exportAppointments(userId, exportFormat, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"appointments-" + userId + "." + exportFormat.getFileExtension() + "\"")
+                    .body(body);
+
+        } catch (InvalidAppointmentDataException e) {
+            return jsonError(HttpStatus.BAD_REQUEST, Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (UserNotFoundException e) {
+            return jsonError(HttpStatus.NOT_FOUND, Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return jsonError(HttpStatus.INTERNAL_SERVER_ERROR,
+                    Map.of("message", "Error exporting appointments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream the user's appointment changes as Server-Sent Events (created, notes-updated, deleted,
+     * occurrence-skipped, changed); "resync" asks the client to refetch what it shows
+     */
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@PathVariable Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            SseEmitter emitter = appointmentService.subscribeToChanges(userId, lastEventId);
+            // Tell buffering proxies to pass events through immediately
+            return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+
+        } catch (UserNotFoundException e) {
+            return sseError(HttpStatus.NOT_FOUND, Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (FeedUnavailableException e) {
+            return sseError(HttpStatus.SERVICE_UNAVAILABLE,
+                    Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return sseError(HttpStatus.INTERNAL_SERVER_ERROR,
+                    Map.of("message", "Error opening change feed: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get all appointments for a user
+     * Answers 304 without reading appointments when If-None-Match carries the current ETag.
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserAppointments(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserAppointments(@PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            List<Appointment> appointments = appointmentService.getUserAppointments(userId);
-            return ResponseEntity.ok(appointments);
+            ListFormat format = ListFormat.negotiate(accept);
+            String etag = format.etag(appointmentService.getCalendarETag(userId));
+            if (notModified(ifNoneMatch, etag, "user")) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            List<AppointmentView> appointments = appointmentService.getUserAppointments(userId);
+            return format.ok().eTag(etag).body(format.body(appointments));
 
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -69,16 +252,172 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Get a keyset-paginated page of appointments, optionally bounded by date
+     */
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<?> getUserAppointmentsPage(@PathVariable Long userId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            LocalDate fromDate = from != null ? LocalDate.parse(from) : null;
+            LocalDate toDate = to != null ? LocalDate.parse(to) : null;
+            AppointmentPage page = appointmentService.getUserAppointmentsPage(userId, fromDate, toDate, cursor, limit);
+            ListFormat format = ListFormat.negotiate(accept);
+            return format.ok().body(format.body(page));
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid date format: " + e.getMessage()));
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error retrieving appointments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get appointments in a date range with recurring series expanded
+     */
+    @GetMapping("/user/{userId}/range")
+    public ResponseEntity<?> getUserAppointmentsInRange(@PathVariable Long userId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            List<AppointmentView> appointments = appointmentService.getUserAppointmentsInRange(userId,
+                    LocalDate.parse(from), LocalDate.parse(to));
+            ListFormat format = ListFormat.negotiate(accept);
+            return format.ok().body(format.body(appointments));
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid date format: " + e.getMessage()));
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error retrieving appointments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Count appointments per genre and day/week/month, e.g. /stats?bucket=month&from=2025-01-01&to=2025-12-31
+     * Without from and to, monthly counts cover all time.
+     */
+    @GetMapping("/user/{userId}/stats")
+    public ResponseEntity<?> getGenreStatistics(@PathVariable Long userId,
+            @RequestParam(defaultValue = "month") String bucket,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        try {
+            StatsBucket statsBucket = StatsBucket.valueOf(bucket.toUpperCase(Locale.ROOT));
+            List<GenreBucketCount> counts = appointmentService.getGenreStatistics(userId, statsBucket,
+                    from != null ? LocalDate.parse(from) : null, to != null ? LocalDate.parse(to) : null);
+            return ResponseEntity.ok(counts);
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid date format: " + e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "bucket must be one of day, week, month"));
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error retrieving statistics: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Search a user's appointments by name, description, genre and notes, e.g. /search?q=zahnarzt&page=0&size=20
+     */
+    @GetMapping("/user/{userId}/search")
+    public ResponseEntity<?> searchUserAppointments(@PathVariable Long userId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            SearchPage result = appointmentService.searchAppointments(userId, q, page, size);
+            return ResponseEntity.ok(result);
+
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error searching appointments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get free time windows per day, e.g. /free-slots?from=2025-01-06&to=2025-01-10&dayStart=08:00&dayEnd=18:00
+     */
+    @GetMapping("/user/{userId}/free-slots")
+    public ResponseEntity<?> getFreeSlots(@PathVariable Long userId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "08:00") String dayStart,
+            @RequestParam(defaultValue = "18:00") String dayEnd,
+            @RequestParam(defaultValue = "30") int minMinutes) {
+        try {
+            // 24:00 is the end of the day, as in the returned slots
+            List<FreeSlot> slots = appointmentService.findFreeSlots(userId, LocalDate.parse(from), LocalDate.parse(to),
+                    LocalTime.parse(dayStart), END_OF_DAY.equals(dayEnd) ? null : LocalTime.parse(dayEnd), minMinutes);
+            return ResponseEntity.ok(slots);
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid date or time format: " + e.getMessage()));
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error finding free slots: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get appointments for specific date
      */
     @GetMapping("/user/{userId}/date/{date}")
     public ResponseEntity<?> getUserAppointmentsByDate(@PathVariable Long userId,
-            @PathVariable String date) {
+            @PathVariable String date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
             LocalDate localDate = LocalDate.parse(date);
-            List<Appointment> appointments = appointmentService.getUserAppointmentsByDate(userId, localDate);
-            return ResponseEntity.ok(appointments);
+            ListFormat format = ListFormat.negotiate(accept);
+            String etag = format.etag(appointmentService.getCalendarETag(userId, localDate));
+            if (notModified(ifNoneMatch, etag, "day")) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            List<AppointmentView> appointments = appointmentService.getUserAppointmentsByDate(userId, localDate);
+            return format.ok().eTag(etag).body(format.body(appointments));
 
         } catch (DateTimeParseException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -94,19 +433,69 @@ public class AppointmentController {
 
     /**
      * Update appointment notes
+     * An optional If-Match header with the appointment version makes the update conditional.
      */
     @PutMapping("/{appointmentId}/notes")
     public ResponseEntity<?> updateNotes(@PathVariable Long appointmentId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, String> request) {
         try {
             String notes = request.get("notes");
-            Appointment updated = appointmentService.updateAppointmentNotes(appointmentId, notes);
+            AppointmentView updated = appointmentService.updateAppointmentNotes(appointmentId, notes,
+                    parseVersion(ifMatch));
+            if (updated == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "Appointment not found"));
+            }
+            return ResponseEntity.ok().eTag(updated.version().toString()).body(updated);
+
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid If-Match version: " + ifMatch));
+        } catch (StaleVersionException e) {
+            return versionConflict(e);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error updating appointment: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Apply a text delta to appointment notes
+     * The body's baseVersion (or If-Match) must be the current version; the response carries the new one.
+     */
+    @PatchMapping("/{appointmentId}/notes")
+    public ResponseEntity<?> patchNotes(@PathVariable Long appointmentId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody NotesPatch patch) {
+        try {
+            if (patch.baseVersion() == null && ifMatch != null) {
+                patch = new NotesPatch(parseVersion(ifMatch), patch.offset(), patch.deleteCount(), patch.text());
+            }
+            NotesUpdate updated = appointmentService.patchAppointmentNotes(appointmentId, patch);
             if (updated == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", "Appointment not found"));
             }
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok().eTag(updated.version().toString()).body(updated);
 
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid If-Match version: " + ifMatch));
+        } catch (StaleVersionException e) {
+            return versionConflict(e);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Error updating appointment: " + e.getMessage()));
@@ -119,12 +508,250 @@ public class AppointmentController {
     @DeleteMapping("/{appointmentId}")
     public ResponseEntity<?> deleteAppointment(@PathVariable Long appointmentId) {
         try {
-            appointmentService.deleteAppointment(appointmentId);
-            return ResponseEntity.ok(Map.of("message", "Appointment deleted successfully"));
+            int deleted = appointmentService.deleteAppointment(appointmentId);
+            return ResponseEntity.ok(Map.of("message", "Appointment deleted successfully", "deleted", deleted));
 
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Error deleting appointment: " + e.getMessage()));
         }
     }
+
+    /**
+     * Delete several appointments by id
+     */
+    @PostMapping("/batch-delete")
+    public ResponseEntity<?> deleteAppointments(@RequestBody BatchDeleteRequest request) {
+        try {
+            int deleted = appointmentService.deleteAppointments(request.ids());
+            return ResponseEntity.ok(Map.of("message", "Appointments deleted successfully", "deleted", deleted));
+
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error deleting appointments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Delete a user's one-off appointments on a specific date
+     */
+    @DeleteMapping("/user/{userId}/date/{date}")
+    public ResponseEntity<?> deleteUserAppointmentsByDate(@PathVariable Long userId, @PathVariable String date) {
+        try {
+            int deleted = appointmentService.deleteUserAppointmentsByDate(userId, LocalDate.parse(date));
+            return ResponseEntity.ok(Map.of("message", "Appointments deleted successfully", "deleted", deleted));
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid date format: " + e.getMessage()));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error deleting appointments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Delete a user's one-off appointments within a date range (inclusive)
+     */
+    @DeleteMapping("/user/{userId}/range")
+    public ResponseEntity<?> deleteUserAppointmentsInRange(@PathVariable Long userId,
+            @RequestParam String from,
+            @RequestParam String to) {
+        try {
+            LocalDate fromDate = LocalDate.parse(from);
+            LocalDate toDate = LocalDate.parse(to);
+            if (fromDate.isAfter(toDate)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("message", "'from' must not be after 'to'"));
+            }
+            int deleted = appointmentService.deleteUserAppointmentsInRange(userId, fromDate, toDate);
+            return ResponseEntity.ok(Map.of("message", "Appointments deleted successfully", "deleted", deleted));
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid date format: " + e.getMessage()));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error deleting appointments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Skip one occurrence of a recurring appointment
+     */
+    @DeleteMapping("/{appointmentId}/occurrences/{date}")
+    public ResponseEntity<?> skipOccurrence(@PathVariable Long appointmentId, @PathVariable String date) {
+        try {
+            if (!appointmentService.skipOccurrence(appointmentId, LocalDate.parse(date))) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "Appointment not found"));
+            }
+            return ResponseEntity.ok(Map.of("message", "Occurrence skipped successfully"));
+
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid date format: " + e.getMessage()));
+        } catch (InvalidAppointmentDataException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error skipping occurrence: " + e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<?> versionConflict(StaleVersionException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .eTag(e.getCurrentVersion().toString())
+                .body(Map.of("message", e.getMessage(), "errorCode", e.getErrorCode(),
+                        "currentVersion", e.getCurrentVersion()));
+    }
+
+    /**
+     * Version from an If-Match header ("3", "\"3\"" or W/"3"); null for absent or "*"
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        return Long.parseLong(value.replace("\"", ""));
+    }
+
+    /**
+     * Error for the event stream endpoint: the status plus a single "error" event
+     */
+    private ResponseEntity<SseEmitter> sseError(HttpStatus status, Map<String, String> body) {
+        errorMetrics.record(body.get("errorCode"), status.value());
+        SseEmitter emitter = new SseEmitter();
+        try {
+            emitter.send(SseEmitter.event().name("error").data(body, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(status).body(emitter);
+    }
+
+    /**
+     * Representations of appointment lists, chosen by the highest-quality Accept entry that
+     * matches one (JSON otherwise). Each representation has its own ETag, a weak one: Tomcat
+     * does not gzip responses carrying a strong ETag.
+     */
+    private enum ListFormat {
+        JSON(MediaType.APPLICATION_JSON, "", false),
+        CBOR(MediaType.APPLICATION_CBOR, "-cbor", false),
+        ROWS_JSON(MediaType.parseMediaType(AppointmentRows.JSON_MEDIA_TYPE), "-rows", true),
+        ROWS_CBOR(MediaType.parseMediaType(AppointmentRows.CBOR_MEDIA_TYPE), "-rows-cbor", true);
+
+        private final MediaType mediaType;
+        private final String etagSuffix;
+        private final boolean columnar;
+
+        ListFormat(MediaType mediaType, String etagSuffix, boolean columnar) {
+            this.mediaType = mediaType;
+            this.etagSuffix = etagSuffix;
+            this.columnar = columnar;
+        }
+
+        static ListFormat negotiate(String accept) {
+            if (accept == null || accept.isBlank()) {
+                return JSON;
+            }
+            List<MediaType> accepted;
+            try {
+                accepted = MediaType.parseMediaTypes(accept);
+            } catch (InvalidMediaTypeException e) {
+                return JSON;
+            }
+            ListFormat best = JSON;
+            double bestQuality = 0;
+            for (MediaType type : accepted) {
+                if (type.getQualityValue() <= bestQuality) {
+                    continue;
+                }
+                for (ListFormat format : values()) {
+                    if (type.includes(format.mediaType)) {
+                        best = format;
+                        bestQuality = type.getQualityValue();
+                        break;
+                    }
+                }
+            }
+            return best;
+        }
+
+        String etag(String etag) {
+            return "W/" + etag.substring(0, etag.length() - 1) + etagSuffix + "\"";
+        }
+
+        ResponseEntity.BodyBuilder ok() {
+            return ResponseEntity.ok().contentType(mediaType).varyBy(HttpHeaders.ACCEPT);
+        }
+
+        Object body(List<AppointmentView> appointments) {
+            return columnar ? AppointmentRows.of(appointments, null) : appointments;
+        }
+
+        Object body(AppointmentPage page) {
+            return columnar ? AppointmentRows.of(page.items(), page.nextCursor()) : page;
+        }
+    }
+
+    /**
+     * Whether If-None-Match contains the current ETag (weak comparison, as for GET); records the outcome
+     */
+    private boolean notModified(String ifNoneMatch, String etag, String view) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            conditionalRequestMetrics.record(view, ConditionalRequestMetrics.UNCONDITIONAL);
+            return false;
+        }
+        String current = etag.startsWith("W/") ? etag.substring(2) : etag;
+        boolean matches = false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(current)) {
+                matches = true;
+                break;
+            }
+        }
+        conditionalRequestMetrics.record(view,
+                matches ? ConditionalRequestMetrics.NOT_MODIFIED : ConditionalRequestMetrics.MODIFIED);
+        return matches;
+    }
+
+    /**
+     * Error body for endpoints whose success response is a raw stream
+     * (counted here because streamed responses bypass ErrorMetricsAdvice)
+     */
+    private ResponseEntity<StreamingResponseBody> jsonError(HttpStatus status, Map<String, String> body) {
+        errorMetrics.record(body.get("errorCode"), status.value());
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, body));
+    }
 }
@@ -1,9 +1,15 @@
 package com.ausganslage.ausgangslageBackend.controller;
 
+import com.ausganslage.ausgangslageBackend.exception.AuthenticationUnavailableException;
 import com.ausganslage.ausgangslageBackend.exception.InvalidCredentialsException;
+import com.ausganslage.ausgangslageBackend.exception.RateLimitedException;
 import com.ausganslage.ausgangslageBackend.exception.UserNotFoundException;
 import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.security.LoginRateLimiter;
+import com.ausganslage.ausgangslageBackend.security.SessionTokenService;
 import com.ausganslage.ausgangslageBackend.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,28 +17,47 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
     private final UserService userService;
+    private final SessionTokenService sessionTokenService;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, SessionTokenService sessionTokenService,
+            LoginRateLimiter loginRateLimiter) {
         this.userService = userService;
+        this.sessionTokenService = sessionTokenService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
+    /**
+     * Log in; attempts are rate limited per client address and per username before any lookup
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
             if (request == null || request.username() == null || request.password() == null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(Map.of("message", "Username and password required"));
             }
 
+            loginRateLimiter.acquire(httpRequest.getRemoteAddr(), request.username());
             UserAccount user = userService.authenticate(request.username(), request.password());
-            return ResponseEntity.ok(new LoginResponse(user.getId(), user.getUsername(), "Login successful"));
+            loginRateLimiter.onSuccess(request.username());
+            SessionTokenService.SessionToken token = sessionTokenService.issue(user.getId());
+            return ResponseEntity.ok(new LoginResponse(user.getId(), user.getUsername(), "Login successful",
+                    token.value(), token.expiresAt()));
 
+        } catch (RateLimitedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfter().toSeconds()))
+                    .body(Map.of(
+                            "message", e.getMessage(),
+                            "errorCode", e.getErrorCode()));
         } catch (InvalidCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of(
@@ -43,6 +68,12 @@ public class AuthController {
                     .body(Map.of(
                             "message", e.getMessage(),
                             "errorCode", e.getErrorCode()));
+        } catch (AuthenticationUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of(
+                            "message", e.getMessage(),
+                            "errorCode", e.getErrorCode()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Authentication error: " + e.getMessage()));
@@ -52,6 +83,9 @@ public class AuthController {
     public record LoginRequest(String username, String password) {
     }
 
-    public record LoginResponse(Long userId, String username, String message) {
+    /**
+     * token is sent back as "Authorization: Bearer &lt;token&gt;" on appointment requests
+     */
+    public record LoginResponse(Long userId, String username, String message, String token, Instant expiresAt) {
     }
 }
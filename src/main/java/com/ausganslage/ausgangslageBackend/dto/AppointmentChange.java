@@ -0,0 +1,48 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * A committed change to a user's calendar, pushed on the change feed.
+ * from/to bound the affected dates (both null: any date); appointment is included
+ * when the new state is already at hand, otherwise clients refetch what they show.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AppointmentChange(String type, Long appointmentId,
+        @JsonFormat(pattern = "yyyy-MM-dd") LocalDate from,
+        @JsonFormat(pattern = "yyyy-MM-dd") LocalDate to,
+        Long version, AppointmentView appointment) {
+
+    public static final String CREATED = "created";
+    public static final String NOTES_UPDATED = "notes-updated";
+    public static final String DELETED = "deleted";
+    public static final String OCCURRENCE_SKIPPED = "occurrence-skipped";
+    public static final String CHANGED = "changed";
+
+    public static AppointmentChange created(AppointmentView appointment) {
+        LocalDate date = appointment.recurrence() == null ? appointment.fromDate() : null;
+        return new AppointmentChange(CREATED, appointment.id(), date, date, appointment.version(), appointment);
+    }
+
+    public static AppointmentChange notesUpdated(Long appointmentId, Long version, AppointmentView appointment) {
+        return new AppointmentChange(NOTES_UPDATED, appointmentId, null, null, version, appointment);
+    }
+
+    public static AppointmentChange deleted(Long appointmentId, LocalDate date) {
+        return new AppointmentChange(DELETED, appointmentId, date, date, null, null);
+    }
+
+    public static AppointmentChange occurrenceSkipped(Long appointmentId, LocalDate date) {
+        return new AppointmentChange(OCCURRENCE_SKIPPED, appointmentId, date, date, null, null);
+    }
+
+    /**
+     * Several appointments changed at once (bulk delete, import); null dates mean any date
+     */
+    public static AppointmentChange changed(LocalDate from, LocalDate to) {
+        return new AppointmentChange(CHANGED, null, from, to, null, null);
+    }
+}
@@ -0,0 +1,42 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import com.ausganslage.ausgangslageBackend.exception.InvalidAppointmentDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last appointment of a page in (fromDate, fromTime, id) order.
+ * Encoded as an opaque URL-safe string for clients.
+ */
+public record AppointmentCursor(LocalDate fromDate, LocalTime fromTime, Long id) {
+
+    public static AppointmentCursor of(AppointmentView appointment) {
+        return new AppointmentCursor(appointment.fromDate(), appointment.fromTime(), appointment.id());
+    }
+
+    public String encode() {
+        String raw = fromDate + "|" + id + (fromTime != null ? "|" + fromTime : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidAppointmentDataException if the cursor was not produced by {@link #encode()}
+     */
+    public static AppointmentCursor decode(String cursor) throws InvalidAppointmentDataException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length < 2) {
+                throw new InvalidAppointmentDataException("Invalid cursor: " + cursor);
+            }
+            return new AppointmentCursor(LocalDate.parse(parts[0]), parts.length == 3 ? LocalTime.parse(parts[2]) : null,
+                    Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidAppointmentDataException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
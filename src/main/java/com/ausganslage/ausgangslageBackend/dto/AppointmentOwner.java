@@ -0,0 +1,18 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import com.ausganslage.ausgangslageBackend.model.Recurrence;
+
+import java.time.LocalDate;
+
+/**
+ * Who owns an appointment and where it sits in the calendar, used to evict cached lists
+ */
+public record AppointmentOwner(Long userId, LocalDate fromDate, Recurrence recurrence) {
+
+    /**
+     * Owner of a one-off appointment
+     */
+    public AppointmentOwner(Long userId, LocalDate fromDate) {
+        this(userId, fromDate, null);
+    }
+}
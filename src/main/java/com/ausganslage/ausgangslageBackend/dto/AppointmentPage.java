@@ -0,0 +1,10 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated appointment listing.
+ * nextCursor is null when there are no further appointments in the range.
+ */
+public record AppointmentPage(List<AppointmentView> items, String nextCursor) {
+}
@@ -0,0 +1,36 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar form of an appointment list: the field names once in columns, then one array of
+ * values per appointment in the same order. Dates and times are formatted as in AppointmentView.
+ * nextCursor is only present for paged listings with a further page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AppointmentRows(List<String> columns, List<Object[]> rows, String nextCursor) {
+    public static final String JSON_MEDIA_TYPE = "application/vnd.ausgangslage.rows+json";
+    public static final String CBOR_MEDIA_TYPE = "application/vnd.ausgangslage.rows+cbor";
+
+    static final List<String> COLUMNS = List.of("id", "name", "description", "fromDate", "fromTime", "toTime",
+            "genre", "notes", "userId", "recurrence", "recurrenceInterval", "recurrenceUntil", "version");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    public static AppointmentRows of(List<AppointmentView> appointments, String nextCursor) {
+        List<Object[]> rows = new ArrayList<>(appointments.size());
+        for (AppointmentView view : appointments) {
+            rows.add(new Object[] { view.id(), view.name(), view.description(),
+                    view.fromDate() != null ? view.fromDate().toString() : null,
+                    view.fromTime() != null ? TIME.format(view.fromTime()) : null,
+                    view.toTime() != null ? TIME.format(view.toTime()) : null,
+                    view.genre(), view.notes(), view.userId(), view.recurrence(), view.recurrenceInterval(),
+                    view.recurrenceUntil() != null ? view.recurrenceUntil().toString() : null,
+                    view.version() });
+        }
+        return new AppointmentRows(COLUMNS, rows, nextCursor);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.Recurrence;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Read-side representation of an appointment with the columns the calendar UI needs.
+ * Carries only the owner's id instead of the UserAccount entity.
+ * For an expanded occurrence of a series, id is the series id and fromDate the occurrence date.
+ */
+public record AppointmentView(Long id, String name, String description,
+        @JsonFormat(pattern = "yyyy-MM-dd") LocalDate fromDate,
+        @JsonFormat(pattern = "HH:mm") LocalTime fromTime,
+        @JsonFormat(pattern = "HH:mm") LocalTime toTime,
+        String genre, String notes, Long userId,
+        Recurrence recurrence, Integer recurrenceInterval,
+        @JsonFormat(pattern = "yyyy-MM-dd") LocalDate recurrenceUntil, Long version) {
+
+    /**
+     * A one-off appointment, e.g. from the archive, which has no series columns
+     */
+    public AppointmentView(Long id, String name, String description, LocalDate fromDate, LocalTime fromTime,
+            LocalTime toTime, String genre, String notes, Long userId, Long version) {
+        this(id, name, description, fromDate, fromTime, toTime, genre, notes, userId, null, null, null, version);
+    }
+
+    public static AppointmentView of(Appointment appointment) {
+        // getUser().getId() reads the proxy identifier without initializing it
+        return new AppointmentView(appointment.getId(), appointment.getName(), appointment.getDescription(),
+                appointment.getFromDate(), appointment.getFromTime(), appointment.getToTime(), appointment.getGenre(),
+                appointment.getNotes(), appointment.getUser() != null ? appointment.getUser().getId() : null,
+                appointment.getRecurrence(), appointment.getRecurrenceInterval(), appointment.getRecurrenceUntil(),
+                appointment.getVersion());
+    }
+
+    /**
+     * The same appointment placed on an occurrence date of its series
+     */
+    public AppointmentView onDate(LocalDate occurrenceDate) {
+        return new AppointmentView(id, name, description, occurrenceDate, fromTime, toTime, genre, notes, userId,
+                recurrence, recurrenceInterval, recurrenceUntil, version);
+    }
+}
@@ -0,0 +1,9 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import java.util.List;
+
+/**
+ * Ids of appointments to delete in one request
+ */
+public record BatchDeleteRequest(List<Long> ids) {
+}
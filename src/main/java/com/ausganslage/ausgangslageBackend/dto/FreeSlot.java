@@ -0,0 +1,35 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Free window on a day; end is exclusive, a window reaching midnight ends at 24:00
+ * (LocalTime.MAX in Java)
+ */
+public record FreeSlot(@JsonFormat(pattern = "yyyy-MM-dd") LocalDate date,
+        @JsonFormat(pattern = "HH:mm") LocalTime start,
+        @JsonSerialize(using = FreeSlot.EndSerializer.class) LocalTime end) {
+
+    static class EndSerializer extends StdSerializer<LocalTime> {
+        private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+        EndSerializer() {
+            super(LocalTime.class);
+        }
+
+        @Override
+        public void serialize(LocalTime end, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeString(end.equals(LocalTime.MAX) ? "24:00" : end.format(FORMAT));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Number of appointments of one genre in one bucket; bucket is the first day of the day/week/month
+ */
+public record GenreBucketCount(String genre,
+        @JsonFormat(pattern = "yyyy-MM-dd") LocalDate bucket,
+        long count) {
+}
@@ -0,0 +1,7 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+/**
+ * Response recorded for an Idempotency-Key: HTTP status and JSON body
+ */
+public record IdempotentResponse(int status, String body) {
+}
@@ -0,0 +1,16 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk appointment import.
+ * Only the first errors are listed; errorsTruncated tells whether more rows failed.
+ */
+public record ImportReport(int imported, int failed, List<RowError> errors, boolean errorsTruncated) {
+
+    /**
+     * Failure of a single input row (1-based position in the request body)
+     */
+    public record RowError(int row, String message, String errorCode) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+/**
+ * A single text edit against the notes as of baseVersion: replace deleteCount characters
+ * at offset (0-based) with text. Typing, deleting and pasting are each one splice.
+ */
+public record NotesPatch(Long baseVersion, Integer offset, Integer deleteCount, String text) {
+}
@@ -0,0 +1,7 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+/**
+ * Result of a notes patch: the version to use as the next baseVersion
+ */
+public record NotesUpdate(Long id, Long version) {
+}
@@ -0,0 +1,11 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Time span of one timed appointment, as loaded into the schedule index.
+ * toTime is null when the appointment has no explicit end.
+ */
+public record ScheduledInterval(Long id, LocalDate date, LocalTime fromTime, LocalTime toTime) {
+}
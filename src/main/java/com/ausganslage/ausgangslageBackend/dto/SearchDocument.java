@@ -0,0 +1,7 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+/**
+ * The searchable text of one appointment
+ */
+public record SearchDocument(Long id, String name, String description, String genre, String notes) {
+}
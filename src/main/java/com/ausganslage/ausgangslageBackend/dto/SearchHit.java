@@ -0,0 +1,7 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+/**
+ * One ranked search result
+ */
+public record SearchHit(AppointmentView appointment, double score) {
+}
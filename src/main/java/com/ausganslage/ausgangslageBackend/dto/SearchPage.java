@@ -0,0 +1,9 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results; total counts all matches
+ */
+public record SearchPage(List<SearchHit> hits, int total, int page, int size) {
+}
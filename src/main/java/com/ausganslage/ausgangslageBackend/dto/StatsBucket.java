@@ -0,0 +1,10 @@
+package com.ausganslage.ausgangslageBackend.dto;
+
+/**
+ * Date granularity of appointment statistics; weeks start on Monday
+ */
+public enum StatsBucket {
+    DAY,
+    WEEK,
+    MONTH
+}
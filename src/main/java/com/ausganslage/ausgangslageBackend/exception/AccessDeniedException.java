@@ -0,0 +1,10 @@
+package com.ausganslage.ausgangslageBackend.exception;
+
+/**
+ * Exception thrown when a token-authenticated request touches another user's data
+ */
+public class AccessDeniedException extends AppException {
+    public AccessDeniedException(String message) {
+        super(message, "ACCESS_DENIED");
+    }
+}
@@ -0,0 +1,10 @@
+package com.ausganslage.ausgangslageBackend.exception;
+
+/**
+ * Exception thrown when an appointment overlaps an existing one
+ */
+public class AppointmentConflictException extends AppException {
+    public AppointmentConflictException(String message) {
+        super(message, "APPOINTMENT_CONFLICT");
+    }
+}
@@ -0,0 +1,15 @@
+package com.ausganslage.ausgangslageBackend.exception;
+
+/**
+ * Exception thrown when credentials cannot be verified right now,
+ * e.g. because the password hashing pool is saturated
+ */
+public class AuthenticationUnavailableException extends AppException {
+    public AuthenticationUnavailableException(String message) {
+        super(message, "AUTH_UNAVAILABLE");
+    }
+
+    public AuthenticationUnavailableException(String message, Throwable cause) {
+        super(message, "AUTH_UNAVAILABLE", cause);
+    }
+}
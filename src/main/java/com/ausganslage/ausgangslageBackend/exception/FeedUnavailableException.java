@@ -0,0 +1,11 @@
+package com.ausganslage.ausgangslageBackend.exception;
+
+/**
+ * Exception thrown when a change feed subscription cannot be accepted,
+ * e.g. because the subscriber limit is reached
+ */
+public class FeedUnavailableException extends AppException {
+    public FeedUnavailableException(String message) {
+        super(message, "FEED_UNAVAILABLE");
+    }
+}
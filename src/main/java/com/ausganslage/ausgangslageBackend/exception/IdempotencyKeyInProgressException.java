@@ -0,0 +1,10 @@
+package com.ausganslage.ausgangslageBackend.exception;
+
+/**
+ * Exception thrown when the request holding an Idempotency-Key is still running elsewhere
+ */
+public class IdempotencyKeyInProgressException extends AppException {
+    public IdempotencyKeyInProgressException() {
+        super("A request with this Idempotency-Key is still in progress", "IDEMPOTENCY_KEY_IN_PROGRESS");
+    }
+}
@@ -0,0 +1,10 @@
+package com.ausganslage.ausgangslageBackend.exception;
+
+/**
+ * Exception thrown when an Idempotency-Key is sent again with a different request
+ */
+public class IdempotencyKeyReusedException extends AppException {
+    public IdempotencyKeyReusedException() {
+        super("Idempotency-Key was already used for a different request", "IDEMPOTENCY_KEY_REUSED");
+    }
+}
@@ -0,0 +1,19 @@
+package com.ausganslage.ausgangslageBackend.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a client or account has used up its login attempts for now
+ */
+public class RateLimitedException extends AppException {
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message, "RATE_LIMITED");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
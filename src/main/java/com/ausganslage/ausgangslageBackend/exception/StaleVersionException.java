@@ -0,0 +1,18 @@
+package com.ausganslage.ausgangslageBackend.exception;
+
+/**
+ * Exception thrown when an update was based on an outdated appointment version
+ */
+public class StaleVersionException extends AppException {
+    private final Long currentVersion;
+
+    public StaleVersionException(Long appointmentId, Long currentVersion) {
+        super("Appointment " + appointmentId + " was modified concurrently (current version " + currentVersion + ")",
+                "VERSION_CONFLICT");
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
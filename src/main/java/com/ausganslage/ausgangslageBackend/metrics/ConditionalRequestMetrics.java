@@ -0,0 +1,32 @@
+package com.ausganslage.ausgangslageBackend.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts ETag-capable reads as app.conditional.requests{view, outcome}
+ * outcome is not_modified (304), modified (If-None-Match sent but stale) or unconditional;
+ * the 304 hit rate is not_modified over all outcomes of a view.
+ */
+@Component
+public class ConditionalRequestMetrics {
+    public static final String NOT_MODIFIED = "not_modified";
+    public static final String MODIFIED = "modified";
+    public static final String UNCONDITIONAL = "unconditional";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConditionalRequestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String view, String outcome) {
+        Counter.builder("app.conditional.requests")
+                .description("Reads answerable with 304 Not Modified, by outcome")
+                .tag("view", view)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
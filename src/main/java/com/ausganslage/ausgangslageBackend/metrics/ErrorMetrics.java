@@ -0,0 +1,29 @@
+package com.ausganslage.ausgangslageBackend.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts error responses as app.errors{errorCode, status}
+ * Responses without an error code (unexpected failures) are tagged "NONE".
+ */
+@Component
+public class ErrorMetrics {
+    static final String NO_ERROR_CODE = "NONE";
+
+    private final MeterRegistry meterRegistry;
+
+    public ErrorMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String errorCode, int status) {
+        Counter.builder("app.errors")
+                .description("Error responses by application error code")
+                .tag("errorCode", errorCode != null ? errorCode : NO_ERROR_CODE)
+                .tag("status", Integer.toString(status))
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ausganslage.ausgangslageBackend.metrics;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Map;
+
+/**
+ * Records the { "message", "errorCode" } bodies the controllers return for failures,
+ * so every error response is counted without touching each catch block
+ */
+@ControllerAdvice
+public class ErrorMetricsAdvice implements ResponseBodyAdvice<Object> {
+    private final ErrorMetrics errorMetrics;
+
+    public ErrorMetricsAdvice(ErrorMetrics errorMetrics) {
+        this.errorMetrics = errorMetrics;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (body instanceof Map<?, ?> map && response instanceof ServletServerHttpResponse servletResponse) {
+            int status = servletResponse.getServletResponse().getStatus();
+            if (status >= 400) {
+                Object errorCode = map.get("errorCode");
+                errorMetrics.record(errorCode != null ? errorCode.toString() : null, status);
+            }
+        }
+        return body;
+    }
+}
@@ -2,14 +2,26 @@ package com.ausganslage.ausgangslageBackend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_user_date_time_id", columnList = "user_id, from_date, from_time, id"),
+        @Index(name = "idx_appointments_user_recurrence", columnList = "user_id, recurrence, from_date"),
+        @Index(name = "idx_appointments_from_date", columnList = "from_date")
+})
 public class Appointment {
+    public static final int MAX_NOTES_LENGTH = 4000;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -18,12 +30,37 @@ public class Appointment {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate fromDate;
 
-    private String fromTime;
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime fromTime;
+
+    // Exclusive end; null means the configured default duration after fromTime
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime toTime;
+
     private String genre;
 
-    @Column(length = 4000)
+    @Column(length = MAX_NOTES_LENGTH)
     private String notes;
 
+    // Recurring series: one row expanded into occurrences on read; null for one-off appointments.
+    // Plain varchar rather than the dialect's enum type, so the schema is portable
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private Recurrence recurrence;
+
+    // Every n-th week/month; defaults to 1 for series
+    private Integer recurrenceInterval;
+
+    // Last possible occurrence date (inclusive); null repeats indefinitely
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate recurrenceUntil;
+
+    // Optimistic concurrency for edits; clients send it back as If-Match / baseVersion
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnoreProperties({ "appointments" })
@@ -61,14 +98,22 @@ public class Appointment {
         this.fromDate = fromDate;
     }
 
-    public String getFromTime() {
+    public LocalTime getFromTime() {
         return fromTime;
     }
 
-    public void setFromTime(String fromTime) {
+    public void setFromTime(LocalTime fromTime) {
         this.fromTime = fromTime;
     }
 
+    public LocalTime getToTime() {
+        return toTime;
+    }
+
+    public void setToTime(LocalTime toTime) {
+        this.toTime = toTime;
+    }
+
     public String getGenre() {
         return genre;
     }
@@ -85,6 +130,38 @@ public class Appointment {
         this.notes = notes;
     }
 
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public void setRecurrence(Recurrence recurrence) {
+        this.recurrence = recurrence;
+    }
+
+    public Integer getRecurrenceInterval() {
+        return recurrenceInterval;
+    }
+
+    public void setRecurrenceInterval(Integer recurrenceInterval) {
+        this.recurrenceInterval = recurrenceInterval;
+    }
+
+    public LocalDate getRecurrenceUntil() {
+        return recurrenceUntil;
+    }
+
+    public void setRecurrenceUntil(LocalDate recurrenceUntil) {
+        this.recurrenceUntil = recurrenceUntil;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public UserAccount getUser() {
         return user;
     }
@@ -0,0 +1,67 @@
+package com.ausganslage.ausgangslageBackend.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Number of appointments per user, genre and month (by fromDate; a recurring series counts once).
+ * Maintained in the same transaction as every insert and delete so all-time statistics
+ * read one row per bucket instead of scanning appointments.
+ */
+@Entity
+@Table(name = "appointment_rollups")
+@IdClass(AppointmentRollup.Key.class)
+public class AppointmentRollup {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Appointments without genre are counted under ""
+    @Id
+    @Column(name = "genre")
+    private String genre;
+
+    // First day of the month
+    @Id
+    @Column(name = "bucket_month")
+    private LocalDate month;
+
+    @Column(name = "appointment_count", nullable = false)
+    private long count;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public LocalDate getMonth() {
+        return month;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private String genre;
+        private LocalDate month;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(userId, key.userId)
+                    && Objects.equals(genre, key.genre) && Objects.equals(month, key.month);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, genre, month);
+        }
+    }
+}
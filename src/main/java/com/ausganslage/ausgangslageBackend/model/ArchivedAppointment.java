@@ -0,0 +1,76 @@
+package com.ausganslage.ausgangslageBackend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A past one-off appointment moved out of the appointments table by the archiver.
+ * Keeps its id and calendar columns; no series columns and no foreign key, so the table
+ * stays compact. Rows are only written by the set-based move and only removed by deletes.
+ */
+@Entity
+@Table(name = "appointments_archive", indexes = {
+        @Index(name = "idx_appointments_archive_user_date_time_id", columnList = "user_id, from_date, from_time, id")
+})
+public class ArchivedAppointment {
+    @Id
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private String name;
+    private String description;
+    private LocalDate fromDate;
+    private LocalTime fromTime;
+    private LocalTime toTime;
+    private String genre;
+
+    @Column(length = Appointment.MAX_NOTES_LENGTH)
+    private String notes;
+
+    @Column(nullable = false)
+    private Long version;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalTime getFromTime() {
+        return fromTime;
+    }
+
+    public LocalTime getToTime() {
+        return toTime;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
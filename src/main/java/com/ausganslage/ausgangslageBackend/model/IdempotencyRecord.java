@@ -0,0 +1,82 @@
+package com.ausganslage.ausgangslageBackend.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Idempotency-Key claimed by a request, with the response once it is known.
+ * Only used with app.idempotency.store=table; rows expire after app.idempotency.ttl.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@IdClass(IdempotencyRecord.Key.class)
+public class IdempotencyRecord {
+    public static final int MAX_KEY_LENGTH = 255;
+    public static final int MAX_BODY_LENGTH = 16000;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    // SHA-256 of the request, hex
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    // Null while the request is running
+    private Integer status;
+
+    @Column(length = MAX_BODY_LENGTH)
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private String idempotencyKey;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(userId, key.userId)
+                    && Objects.equals(idempotencyKey, key.idempotencyKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, idempotencyKey);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.ausganslage.ausgangslageBackend.model;
+
+/**
+ * Repetition rule of a recurring appointment series
+ */
+public enum Recurrence {
+    WEEKLY,
+    MONTHLY
+}
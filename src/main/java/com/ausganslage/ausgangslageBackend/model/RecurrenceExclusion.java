@@ -0,0 +1,53 @@
+package com.ausganslage.ausgangslageBackend.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+
+/**
+ * A skipped occurrence of a recurring appointment series.
+ * Only exceptions are stored; regular occurrences are computed from the rule.
+ */
+@Entity
+@Table(name = "recurrence_exclusions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_recurrence_exclusions_series_date", columnNames = { "appointment_id", "occurrence_date" })
+})
+public class RecurrenceExclusion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "appointment_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Appointment appointment;
+
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDate occurrenceDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Appointment getAppointment() {
+        return appointment;
+    }
+
+    public void setAppointment(Appointment appointment) {
+        this.appointment = appointment;
+    }
+
+    public LocalDate getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public void setOccurrenceDate(LocalDate occurrenceDate) {
+        this.occurrenceDate = occurrenceDate;
+    }
+}
@@ -1,10 +1,27 @@
 package com.ausganslage.ausgangslageBackend.repository;
 
+import com.ausganslage.ausgangslageBackend.dto.AppointmentOwner;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.dto.GenreBucketCount;
+import com.ausganslage.ausgangslageBackend.dto.ScheduledInterval;
+import com.ausganslage.ausgangslageBackend.dto.SearchDocument;
 import com.ausganslage.ausgangslageBackend.model.Appointment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     List<Appointment> findByUserId(Long userId);
@@ -13,5 +30,257 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 
     List<Appointment> findByUserIdOrderByFromDateAscFromTimeAsc(Long userId);
 
+    /**
+     * Appointment with its user fetched by the same statement, so it can be used outside a transaction
+     */
+    @Query("select a from Appointment a join fetch a.user where a.id = :id")
+    Optional<Appointment> findWithUserById(Long id);
+
+    /**
+     * Delete a user's one-off appointments on a date in a single statement
+     * (recurring series are deleted by id)
+     */
+    @Modifying
+    @Query("delete from Appointment a where a.user.id = :userId and a.fromDate = :fromDate and a.recurrence is null")
     int deleteByUserIdAndFromDate(Long userId, LocalDate fromDate);
+
+    /**
+     * Delete a user's one-off appointments within [from, to] in a single statement
+     */
+    @Modifying
+    @Query("""
+            delete from Appointment a
+            where a.user.id = :userId and a.fromDate between :from and :to and a.recurrence is null""")
+    int deleteOneOffsInRange(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Delete by id without loading the entity; skipped occurrences go with it (ON DELETE CASCADE)
+     */
+    @Modifying
+    @Query("delete from Appointment a where a.id = :id")
+    int deleteOneById(Long id);
+
+    @Modifying
+    @Query("delete from Appointment a where a.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    /**
+     * All appointments of a user as read-side views, selected in a single statement
+     * without touching the users table
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.user.id,
+                a.recurrence, a.recurrenceInterval, a.recurrenceUntil, a.version)
+            from Appointment a
+            where a.user.id = :userId
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    List<AppointmentView> findViewsByUserId(Long userId);
+
+    /**
+     * One-off appointments of a user within [from, to] together with every series that may
+     * have an occurrence there, so a calendar window needs a single statement
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.user.id,
+                a.recurrence, a.recurrenceInterval, a.recurrenceUntil, a.version)
+            from Appointment a
+            where a.user.id = :userId
+              and ((a.recurrence is null and a.fromDate between :from and :to)
+                or (a.recurrence is not null and a.fromDate <= :to
+                    and (a.recurrenceUntil is null or a.recurrenceUntil >= :from)))""")
+    List<AppointmentView> findViewsInWindow(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Recurring series of a user that may have occurrences within [from, to]
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.user.id,
+                a.recurrence, a.recurrenceInterval, a.recurrenceUntil, a.version)
+            from Appointment a
+            where a.user.id = :userId and a.recurrence is not null and a.fromDate <= :to
+              and (a.recurrenceUntil is null or a.recurrenceUntil >= :from)""")
+    List<AppointmentView> findSeriesViews(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * First page of a user's appointments in a date range, ordered like the
+     * (user_id, from_date, from_time, id) index
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.user.id,
+                a.recurrence, a.recurrenceInterval, a.recurrenceUntil, a.version)
+            from Appointment a
+            where a.user.id = :userId and a.fromDate between :from and :to
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    List<AppointmentView> findPage(Long userId, LocalDate from, LocalDate to, Limit limit);
+
+    /**
+     * Next page strictly after the cursor position (afterDate, afterTime, afterId).
+     * A null afterTime sorts before every non-null time.
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.user.id,
+                a.recurrence, a.recurrenceInterval, a.recurrenceUntil, a.version)
+            from Appointment a
+            where a.user.id = :userId and a.fromDate between :from and :to
+              and (a.fromDate > :afterDate
+                or (a.fromDate = :afterDate
+                  and ((:afterTime is null and (a.fromTime is not null or a.id > :afterId))
+                    or a.fromTime > :afterTime
+                    or (a.fromTime = :afterTime and a.id > :afterId))))
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    List<AppointmentView> findPageAfter(Long userId, LocalDate from, LocalDate to,
+            LocalDate afterDate, LocalTime afterTime, Long afterId, Limit limit);
+
+    /**
+     * Time spans of a user's timed one-off appointments in a date range, for the schedule index
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.ScheduledInterval(a.id, a.fromDate, a.fromTime, a.toTime)
+            from Appointment a
+            where a.user.id = :userId and a.fromDate between :from and :to and a.fromTime is not null
+              and a.recurrence is null
+            order by a.fromDate, a.fromTime""")
+    List<ScheduledInterval> findOneOffIntervals(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Appointments per genre and day within [from, to]; a recurring series counts once, on its first date
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.GenreBucketCount(a.genre, a.fromDate, count(a))
+            from Appointment a
+            where a.user.id = :userId and a.fromDate between :from and :to
+            group by a.fromDate, a.genre
+            order by a.fromDate, a.genre""")
+    List<GenreBucketCount> countByGenreAndDay(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Appointments per genre and week (starting Monday) within [from, to]
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.GenreBucketCount(a.genre, trunc(a.fromDate, week), count(a))
+            from Appointment a
+            where a.user.id = :userId and a.fromDate between :from and :to
+            group by trunc(a.fromDate, week), a.genre
+            order by trunc(a.fromDate, week), a.genre""")
+    List<GenreBucketCount> countByGenreAndWeek(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Appointments per genre and month within [from, to]
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.GenreBucketCount(a.genre, trunc(a.fromDate, month), count(a))
+            from Appointment a
+            where a.user.id = :userId and a.fromDate between :from and :to
+            group by trunc(a.fromDate, month), a.genre
+            order by trunc(a.fromDate, month), a.genre""")
+    List<GenreBucketCount> countByGenreAndMonth(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Forward-only cursor over all appointments of a user, for exports.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            select a from Appointment a
+            where a.user.id = :userId
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    Stream<Appointment> streamByUserId(Long userId);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.user.id,
+                a.recurrence, a.recurrenceInterval, a.recurrenceUntil, a.version)
+            from Appointment a
+            where a.id = :id""")
+    Optional<AppointmentView> findViewById(Long id);
+
+    /**
+     * Owner and calendar position of an appointment; these never change for an id
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentOwner(a.user.id, a.fromDate, a.recurrence)
+            from Appointment a
+            where a.id = :id""")
+    Optional<AppointmentOwner> findOwnerById(Long id);
+
+    @Query("""
+            select distinct new com.ausganslage.ausgangslageBackend.dto.AppointmentOwner(a.user.id, a.fromDate, a.recurrence)
+            from Appointment a
+            where a.id in :ids""")
+    List<AppointmentOwner> findOwnersByIdIn(Collection<Long> ids);
+
+    /**
+     * Ids of one-off appointments before cutoff, locked so no edit slips in while they are moved
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a.id from Appointment a where a.fromDate < :cutoff and a.recurrence is null")
+    List<Long> findArchivableIds(LocalDate cutoff, Limit limit);
+
+    @Query("select a.version from Appointment a where a.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Replace notes in a single UPDATE without loading the entity
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Appointment a set a.notes = :notes, a.version = a.version + 1 where a.id = :id")
+    int updateNotes(Long id, String notes);
+
+    /**
+     * Replace notes only if nobody saved since expectedVersion
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Appointment a set a.notes = :notes, a.version = a.version + 1
+            where a.id = :id and a.version = :expectedVersion""")
+    int updateNotesIfVersion(Long id, String notes, Long expectedVersion);
+
+    /**
+     * Apply a text splice to the stored notes in the database: replace deleteCount characters
+     * at offset (0-based) with text. Matches no row if the version moved on, the range lies
+     * outside the current notes, or the result would exceed the column length.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Appointment a
+            set a.notes = concat(substring(coalesce(a.notes, ''), 1, :offset), :text,
+                    substring(coalesce(a.notes, ''), :offset + :deleteCount + 1)),
+                a.version = a.version + 1
+            where a.id = :id and a.version = :baseVersion
+              and :offset + :deleteCount <= length(coalesce(a.notes, ''))
+              and length(coalesce(a.notes, '')) - :deleteCount + :textLength <= :maxLength""")
+    int spliceNotes(Long id, Long baseVersion, int offset, int deleteCount, String text, int textLength,
+            int maxLength);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.user.id,
+                a.recurrence, a.recurrenceInterval, a.recurrenceUntil, a.version)
+            from Appointment a
+            where a.id in :ids""")
+    List<AppointmentView> findViewsByIdIn(Collection<Long> ids);
+
+    /**
+     * Searchable text of all appointments of a user, for building the search index
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.SearchDocument(a.id, a.name, a.description, a.genre, a.notes)
+            from Appointment a
+            where a.user.id = :userId""")
+    List<SearchDocument> findSearchDocumentsByUserId(Long userId);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.SearchDocument(a.id, a.name, a.description, a.genre, a.notes)
+            from Appointment a
+            where a.id in :ids""")
+    List<SearchDocument> findSearchDocumentsByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,105 @@
+package com.ausganslage.ausgangslageBackend.repository;
+
+import com.ausganslage.ausgangslageBackend.dto.GenreBucketCount;
+import com.ausganslage.ausgangslageBackend.model.AppointmentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Monthly per-genre appointment counts. Writes are single MERGE statements that must run
+ * in the transaction inserting or deleting the appointments they count.
+ */
+public interface AppointmentRollupRepository extends JpaRepository<AppointmentRollup, AppointmentRollup.Key> {
+
+    /**
+     * All-time counts per genre and month, oldest month first
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.GenreBucketCount(nullif(r.genre, ''), r.month, r.count)
+            from AppointmentRollup r
+            where r.userId = :userId and r.count > 0
+            order by r.month, r.genre""")
+    List<GenreBucketCount> findByUserId(Long userId);
+
+    /**
+     * Add delta to one bucket, creating it if needed
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            merge into appointment_rollups r
+            using (select cast(:userId as bigint) user_id, cast(:genre as varchar(255)) genre,
+                          cast(:month as date) bucket_month, cast(:delta as bigint) delta) s
+            on (r.user_id = s.user_id and r.genre = s.genre and r.bucket_month = s.bucket_month)
+            when matched then update set appointment_count = r.appointment_count + s.delta
+            when not matched then insert (user_id, genre, bucket_month, appointment_count)
+                values (s.user_id, s.genre, s.bucket_month, s.delta)""")
+    void add(Long userId, String genre, LocalDate month, long delta);
+
+    /**
+     * Add (sign 1) or subtract (sign -1) the given appointments, grouped into buckets in the database
+     * Subtracting must happen before the rows are deleted.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            merge into appointment_rollups r
+            using (select a.user_id, coalesce(a.genre, '') genre,
+                          cast(date_trunc('MONTH', a.from_date) as date) bucket_month, count(*) * :sign delta
+                   from appointments a
+                   where a.id in :appointmentIds and a.from_date is not null
+                   group by a.user_id, coalesce(a.genre, ''), cast(date_trunc('MONTH', a.from_date) as date)) s
+            on (r.user_id = s.user_id and r.genre = s.genre and r.bucket_month = s.bucket_month)
+            when matched then update set appointment_count = r.appointment_count + s.delta
+            when not matched then insert (user_id, genre, bucket_month, appointment_count)
+                values (s.user_id, s.genre, s.bucket_month, s.delta)""")
+    void addAppointments(Collection<Long> appointmentIds, int sign);
+
+    /**
+     * Subtract a user's one-off appointments within [from, to]; call before deleting them
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            merge into appointment_rollups r
+            using (select a.user_id, coalesce(a.genre, '') genre,
+                          cast(date_trunc('MONTH', a.from_date) as date) bucket_month, -count(*) delta
+                   from appointments a
+                   where a.user_id = :userId and a.recurrence is null and a.from_date between :from and :to
+                   group by a.user_id, coalesce(a.genre, ''), cast(date_trunc('MONTH', a.from_date) as date)) s
+            on (r.user_id = s.user_id and r.genre = s.genre and r.bucket_month = s.bucket_month)
+            when matched then update set appointment_count = r.appointment_count + s.delta""")
+    void subtractOneOffsInRange(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Subtract archived appointments; call before deleting them from the archive
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            merge into appointment_rollups r
+            using (select a.user_id, coalesce(a.genre, '') genre,
+                          cast(date_trunc('MONTH', a.from_date) as date) bucket_month, -count(*) delta
+                   from appointments_archive a
+                   where a.id in :appointmentIds and a.from_date is not null
+                   group by a.user_id, coalesce(a.genre, ''), cast(date_trunc('MONTH', a.from_date) as date)) s
+            on (r.user_id = s.user_id and r.genre = s.genre and r.bucket_month = s.bucket_month)
+            when matched then update set appointment_count = r.appointment_count + s.delta""")
+    void subtractArchived(Collection<Long> appointmentIds);
+
+    /**
+     * Subtract a user's archived appointments within [from, to]; call before deleting them
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            merge into appointment_rollups r
+            using (select a.user_id, coalesce(a.genre, '') genre,
+                          cast(date_trunc('MONTH', a.from_date) as date) bucket_month, -count(*) delta
+                   from appointments_archive a
+                   where a.user_id = :userId and a.from_date between :from and :to
+                   group by a.user_id, coalesce(a.genre, ''), cast(date_trunc('MONTH', a.from_date) as date)) s
+            on (r.user_id = s.user_id and r.genre = s.genre and r.bucket_month = s.bucket_month)
+            when matched then update set appointment_count = r.appointment_count + s.delta""")
+    void subtractArchivedInRange(Long userId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,166 @@
+package com.ausganslage.ausgangslageBackend.repository;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentOwner;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.dto.GenreBucketCount;
+import com.ausganslage.ausgangslageBackend.dto.ScheduledInterval;
+import com.ausganslage.ausgangslageBackend.dto.SearchDocument;
+import com.ausganslage.ausgangslageBackend.model.ArchivedAppointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read and delete queries of the archive, mirroring the appointment queries for one-offs
+ */
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    /**
+     * Copy appointments into the archive in one statement; the caller deletes them afterwards
+     * in the same transaction
+     */
+    @Modifying
+    @Query("""
+            insert into ArchivedAppointment (id, userId, name, description, fromDate, fromTime, toTime, genre, notes, version)
+            select a.id, a.user.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.version
+            from Appointment a
+            where a.id in :ids""")
+    int copyFromAppointments(Collection<Long> ids);
+
+    @Query("select max(a.fromDate) from ArchivedAppointment a")
+    Optional<LocalDate> findNewestDate();
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.userId, a.version)
+            from ArchivedAppointment a
+            where a.userId = :userId
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    List<AppointmentView> findViewsByUserId(Long userId);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.userId, a.version)
+            from ArchivedAppointment a
+            where a.userId = :userId and a.fromDate between :from and :to
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    List<AppointmentView> findViewsInRange(Long userId, LocalDate from, LocalDate to);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.userId, a.version)
+            from ArchivedAppointment a
+            where a.userId = :userId and a.fromDate between :from and :to
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    List<AppointmentView> findPage(Long userId, LocalDate from, LocalDate to, Limit limit);
+
+    /**
+     * Next page strictly after the cursor position, as in AppointmentRepository.findPageAfter
+     */
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.userId, a.version)
+            from ArchivedAppointment a
+            where a.userId = :userId and a.fromDate between :from and :to
+              and (a.fromDate > :afterDate
+                or (a.fromDate = :afterDate
+                  and ((:afterTime is null and (a.fromTime is not null or a.id > :afterId))
+                    or a.fromTime > :afterTime
+                    or (a.fromTime = :afterTime and a.id > :afterId))))
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    List<AppointmentView> findPageAfter(Long userId, LocalDate from, LocalDate to,
+            LocalDate afterDate, LocalTime afterTime, Long afterId, Limit limit);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.ScheduledInterval(a.id, a.fromDate, a.fromTime, a.toTime)
+            from ArchivedAppointment a
+            where a.userId = :userId and a.fromDate between :from and :to and a.fromTime is not null
+            order by a.fromDate, a.fromTime""")
+    List<ScheduledInterval> findIntervals(Long userId, LocalDate from, LocalDate to);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.GenreBucketCount(a.genre, a.fromDate, count(a))
+            from ArchivedAppointment a
+            where a.userId = :userId and a.fromDate between :from and :to
+            group by a.fromDate, a.genre""")
+    List<GenreBucketCount> countByGenreAndDay(Long userId, LocalDate from, LocalDate to);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.GenreBucketCount(a.genre, trunc(a.fromDate, week), count(a))
+            from ArchivedAppointment a
+            where a.userId = :userId and a.fromDate between :from and :to
+            group by trunc(a.fromDate, week), a.genre""")
+    List<GenreBucketCount> countByGenreAndWeek(Long userId, LocalDate from, LocalDate to);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.GenreBucketCount(a.genre, trunc(a.fromDate, month), count(a))
+            from ArchivedAppointment a
+            where a.userId = :userId and a.fromDate between :from and :to
+            group by trunc(a.fromDate, month), a.genre""")
+    List<GenreBucketCount> countByGenreAndMonth(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Forward-only cursor over a user's archived appointments, for exports
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.userId, a.version)
+            from ArchivedAppointment a
+            where a.userId = :userId
+            order by a.fromDate, a.fromTime nulls first, a.id""")
+    Stream<AppointmentView> streamViewsByUserId(Long userId);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentView(
+                a.id, a.name, a.description, a.fromDate, a.fromTime, a.toTime, a.genre, a.notes, a.userId, a.version)
+            from ArchivedAppointment a
+            where a.id in :ids""")
+    List<AppointmentView> findViewsByIdIn(Collection<Long> ids);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.SearchDocument(a.id, a.name, a.description, a.genre, a.notes)
+            from ArchivedAppointment a
+            where a.userId = :userId""")
+    List<SearchDocument> findSearchDocumentsByUserId(Long userId);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.SearchDocument(a.id, a.name, a.description, a.genre, a.notes)
+            from ArchivedAppointment a
+            where a.id in :ids""")
+    List<SearchDocument> findSearchDocumentsByIdIn(Collection<Long> ids);
+
+    @Query("""
+            select new com.ausganslage.ausgangslageBackend.dto.AppointmentOwner(a.userId, a.fromDate)
+            from ArchivedAppointment a
+            where a.id = :id""")
+    Optional<AppointmentOwner> findOwnerById(Long id);
+
+    @Query("""
+            select distinct new com.ausganslage.ausgangslageBackend.dto.AppointmentOwner(a.userId, a.fromDate)
+            from ArchivedAppointment a
+            where a.id in :ids""")
+    List<AppointmentOwner> findOwnersByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from ArchivedAppointment a where a.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from ArchivedAppointment a where a.userId = :userId and a.fromDate between :from and :to")
+    int deleteInRange(Long userId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,51 @@
+package com.ausganslage.ausgangslageBackend.repository;
+
+import com.ausganslage.ausgangslageBackend.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Idempotency keys for app.idempotency.store=table. The primary key makes claiming atomic:
+ * of two concurrent claims for the same key, one fails with a duplicate key.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    /**
+     * Claim a key for a running request; throws DataIntegrityViolationException if it is taken
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into idempotency_keys (user_id, idempotency_key, fingerprint, created_at)
+            values (:userId, :idempotencyKey, :fingerprint, :createdAt)""")
+    void claim(Long userId, String idempotencyKey, String fingerprint, Instant createdAt);
+
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r set r.status = :status, r.body = :body
+            where r.userId = :userId and r.idempotencyKey = :idempotencyKey""")
+    int complete(Long userId, String idempotencyKey, int status, String body);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.userId = :userId and r.idempotencyKey = :idempotencyKey")
+    int release(Long userId, String idempotencyKey);
+
+    /**
+     * Drop the key if it expired, or if its claim is older than abandonedBefore without a response
+     */
+    @Modifying
+    @Query("""
+            delete from IdempotencyRecord r
+            where r.userId = :userId and r.idempotencyKey = :idempotencyKey
+              and (r.createdAt < :expiredBefore or (r.status is null and r.createdAt < :abandonedBefore))""")
+    int deleteStale(Long userId, String idempotencyKey, Instant expiredBefore, Instant abandonedBefore);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(Instant before);
+}
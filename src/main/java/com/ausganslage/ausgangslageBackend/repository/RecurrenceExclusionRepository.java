@@ -0,0 +1,28 @@
+package com.ausganslage.ausgangslageBackend.repository;
+
+import com.ausganslage.ausgangslageBackend.model.RecurrenceExclusion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface RecurrenceExclusionRepository extends JpaRepository<RecurrenceExclusion, Long> {
+    boolean existsByAppointmentIdAndOccurrenceDate(Long appointmentId, LocalDate occurrenceDate);
+
+    /**
+     * Skipped occurrences of the given series within [from, to]
+     */
+    @Query("""
+            select e.appointment.id as seriesId, e.occurrenceDate as occurrenceDate
+            from RecurrenceExclusion e
+            where e.appointment.id in :seriesIds and e.occurrenceDate between :from and :to""")
+    List<ExcludedOccurrence> findExcluded(Collection<Long> seriesIds, LocalDate from, LocalDate to);
+
+    interface ExcludedOccurrence {
+        Long getSeriesId();
+
+        LocalDate getOccurrenceDate();
+    }
+}
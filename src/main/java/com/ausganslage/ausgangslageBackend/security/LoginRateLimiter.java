@@ -0,0 +1,154 @@
+package com.ausganslage.ausgangslageBackend.security;
+
+import com.ausganslage.ausgangslageBackend.exception.RateLimitedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for login attempts per client address and per username, checked before
+ * anything touches the database.
+ * <p>
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (GCRA): an attempt
+ * is one CAS, with no lock and no refill timer. Buckets live in bounded Caffeine caches and
+ * expire once idle long enough to be full again, so forgetting them loses nothing.
+ */
+@Component
+public class LoginRateLimiter {
+    static final int MAX_KEY_LENGTH = 256;
+    private static final String CLIENT_LIMITED = "Too many login attempts from this client";
+    private static final String ACCOUNT_LIMITED = "Too many login attempts for this account";
+
+    private final boolean enabled;
+    private final Buckets byAddress;
+    private final Buckets byUsername;
+    private final Counter addressRejections;
+    private final Counter usernameRejections;
+
+    public LoginRateLimiter(@Value("${app.auth.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.auth.rate-limit.address.limit:30}") int addressLimit,
+            @Value("${app.auth.rate-limit.address.burst:10}") int addressBurst,
+            @Value("${app.auth.rate-limit.address.period:1m}") Duration addressPeriod,
+            @Value("${app.auth.rate-limit.username.limit:10}") int usernameLimit,
+            @Value("${app.auth.rate-limit.username.burst:5}") int usernameBurst,
+            @Value("${app.auth.rate-limit.username.period:1m}") Duration usernamePeriod,
+            @Value("${app.auth.rate-limit.max-keys:100000}") long maxKeys,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.byAddress = new Buckets(addressLimit, addressBurst, addressPeriod, maxKeys);
+        this.byUsername = new Buckets(usernameLimit, usernameBurst, usernamePeriod, maxKeys);
+        this.addressRejections = rejections(meterRegistry, "address");
+        this.usernameRejections = rejections(meterRegistry, "username");
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("app.auth.rate-limited")
+                .description("Login attempts rejected by the rate limiter")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take one login attempt from the client's and the username's bucket
+     *
+     * @throws RateLimitedException if either bucket is empty
+     */
+    public void acquire(String clientAddress, String username) throws RateLimitedException {
+        if (!enabled) {
+            return;
+        }
+        String address = key(clientAddress);
+        String account = key(username);
+        long now = System.nanoTime();
+        // Check both before taking from either, so guessing at a locked account doesn't also use up
+        // the client's attempts; a race between check and take at worst costs one extra token
+        rejectIfWaiting(byAddress.waitTime(address, now), addressRejections, CLIENT_LIMITED);
+        rejectIfWaiting(byUsername.waitTime(account, now), usernameRejections, ACCOUNT_LIMITED);
+        rejectIfWaiting(byAddress.tryAcquire(address, now), addressRejections, CLIENT_LIMITED);
+        rejectIfWaiting(byUsername.tryAcquire(account, now), usernameRejections, ACCOUNT_LIMITED);
+    }
+
+    private static void rejectIfWaiting(long wait, Counter rejections, String message) throws RateLimitedException {
+        if (wait > 0) {
+            rejections.increment();
+            throw new RateLimitedException(message, retryAfter(wait));
+        }
+    }
+
+    /**
+     * A successful login refills the username's bucket, so earlier typos don't lock the owner out
+     */
+    public void onSuccess(String username) {
+        if (enabled) {
+            byUsername.reset(key(username));
+        }
+    }
+
+    private static String key(String value) {
+        String key = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static Duration retryAfter(long waitNanos) {
+        return Duration.ofSeconds(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+    }
+
+    /**
+     * GCRA buckets: limit attempts per period, up to burst at once
+     */
+    static final class Buckets {
+        private final long interval;
+        private final long tolerance;
+        private final Cache<String, AtomicLong> arrivals;
+
+        Buckets(int limit, int burst, Duration period, long maxKeys) {
+            if (limit < 1 || burst < 1) {
+                throw new IllegalArgumentException("Rate limit and burst must be at least 1");
+            }
+            this.interval = Math.max(1, period.toNanos() / limit);
+            this.tolerance = interval * (burst - 1);
+            this.arrivals = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(interval * burst))
+                    .build();
+        }
+
+        /**
+         * @return 0 if allowed, otherwise nanoseconds until the next attempt would be
+         */
+        long tryAcquire(String key, long now) {
+            AtomicLong arrival = arrivals.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = arrival.get();
+                long base = Math.max(current, now);
+                long wait = base - now - tolerance;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (arrival.compareAndSet(current, base + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * @return like tryAcquire, without taking an attempt
+         */
+        long waitTime(String key, long now) {
+            AtomicLong arrival = arrivals.getIfPresent(key);
+            return arrival == null ? 0 : Math.max(0, Math.max(arrival.get(), now) - now - tolerance);
+        }
+
+        void reset(String key) {
+            arrivals.invalidate(key);
+        }
+    }
+}
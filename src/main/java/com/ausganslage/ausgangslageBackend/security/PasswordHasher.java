@@ -0,0 +1,109 @@
+package com.ausganslage.ausgangslageBackend.security;
+
+import com.ausganslage.ausgangslageBackend.exception.AuthenticationUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password hashing with a configurable cost
+ * Verification runs on a dedicated bounded pool so a login storm queues (and
+ * is eventually rejected) there instead of tying up every request thread.
+ */
+@Component
+public class PasswordHasher {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public PasswordHasher(@Value("${app.auth.bcrypt-cost:10}") int cost,
+            @Value("${app.auth.hash-threads:0}") int threads,
+            @Value("${app.auth.hash-queue-capacity:64}") int queueCapacity,
+            @Value("${app.auth.hash-timeout:5s}") Duration timeout) {
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.timeout = timeout;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Result of a verification; rehashed is the new hash to store, or null if the stored one is current
+     */
+    public record Verification(boolean matches, String rehashed) {
+    }
+
+    /**
+     * Hash a raw password with the configured cost (on the calling thread)
+     */
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Verify a raw password against the stored value on the hashing pool
+     * Legacy plaintext values and hashes with a lower cost are rehashed on success.
+     *
+     * @throws AuthenticationUnavailableException if the pool is saturated or verification times out
+     */
+    public Verification verify(String rawPassword, String storedPassword) throws AuthenticationUnavailableException {
+        Future<Verification> result;
+        try {
+            result = executor.submit(() -> verifyNow(rawPassword, storedPassword));
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationUnavailableException("Too many concurrent logins, please retry", e);
+        }
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new AuthenticationUnavailableException("Password verification timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationUnavailableException("Password verification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    Verification verifyNow(String rawPassword, String storedPassword) {
+        if (storedPassword == null) {
+            return new Verification(false, null);
+        }
+        if (!BCRYPT_HASH.matcher(storedPassword).matches()) {
+            // Legacy plaintext row: constant-time compare, then upgrade to a hash
+            boolean matches = MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+            return new Verification(matches, matches ? encoder.encode(rawPassword) : null);
+        }
+        boolean matches = encoder.matches(rawPassword, storedPassword);
+        String rehashed = matches && encoder.upgradeEncoding(storedPassword) ? encoder.encode(rawPassword) : null;
+        return new Verification(matches, rehashed);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
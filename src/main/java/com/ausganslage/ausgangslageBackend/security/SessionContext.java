@@ -0,0 +1,44 @@
+package com.ausganslage.ausgangslageBackend.security;
+
+/**
+ * Holds the user id proven by a verified session token for the current request thread.
+ * Set and cleared by {@link SessionTokenFilter}.
+ */
+public final class SessionContext {
+    private static final ThreadLocal<Long> AUTHENTICATED_USER = new ThreadLocal<>();
+
+    private SessionContext() {
+    }
+
+    /**
+     * Id of the token-authenticated user, or null if the request carried no token
+     */
+    public static Long currentUserId() {
+        return AUTHENTICATED_USER.get();
+    }
+
+    /**
+     * True if the request is token-authenticated as the given user,
+     * so the user is known to exist without a database lookup
+     */
+    public static boolean isAuthenticated(Long userId) {
+        Long current = AUTHENTICATED_USER.get();
+        return current != null && current.equals(userId);
+    }
+
+    /**
+     * True unless the request is token-authenticated as a different user
+     */
+    public static boolean mayAccess(Long userId) {
+        Long current = AUTHENTICATED_USER.get();
+        return current == null || current.equals(userId);
+    }
+
+    static void set(Long userId) {
+        AUTHENTICATED_USER.set(userId);
+    }
+
+    static void clear() {
+        AUTHENTICATED_USER.remove();
+    }
+}
@@ -0,0 +1,104 @@
+package com.ausganslage.ausgangslageBackend.security;
+
+import com.ausganslage.ausgangslageBackend.metrics.ErrorMetrics;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Verifies "Authorization: Bearer" session tokens on /api requests and exposes the
+ * user id through {@link SessionContext}. Requests without a token pass through
+ * unauthenticated unless app.auth.token.required is set.
+ * <p>
+ * Whether the token's user still exists is looked up once per user-recheck-interval, so
+ * the tokens of a deleted user stop working within that interval.
+ */
+@Component
+public class SessionTokenFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String INVALID_SESSION_TOKEN = "INVALID_SESSION_TOKEN";
+
+    private final SessionTokenService sessionTokenService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final ErrorMetrics errorMetrics;
+    private final boolean tokenRequired;
+
+    // Result of the last existence lookup per token user
+    private final Cache<Long, Boolean> userExists;
+
+    public SessionTokenFilter(SessionTokenService sessionTokenService, UserRepository userRepository,
+            ObjectMapper objectMapper, ErrorMetrics errorMetrics,
+            @Value("${app.auth.token.required:false}") boolean tokenRequired,
+            @Value("${app.auth.token.user-recheck-interval:5m}") Duration userRecheckInterval,
+            @Value("${app.auth.token.max-checked-users:100000}") long maxCheckedUsers) {
+        this.sessionTokenService = sessionTokenService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.errorMetrics = errorMetrics;
+        this.tokenRequired = tokenRequired;
+        this.userExists = Caffeine.newBuilder()
+                .maximumSize(maxCheckedUsers)
+                .expireAfterWrite(userRecheckInterval)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/") || path.startsWith("/api/auth/") || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            if (tokenRequired) {
+                reject(response, "Session token required");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Long userId = sessionTokenService.verify(header.substring(BEARER_PREFIX.length()).trim());
+        if (userId == null) {
+            reject(response, "Invalid or expired session token");
+            return;
+        }
+        if (!userExists.get(userId, userRepository::existsById)) {
+            reject(response, "Session token user no longer exists");
+            return;
+        }
+        SessionContext.set(userId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SessionContext.clear();
+        }
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        errorMetrics.record(INVALID_SESSION_TOKEN, HttpStatus.UNAUTHORIZED.value());
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getWriter(), Map.of("message", message, "errorCode", INVALID_SESSION_TOKEN));
+    }
+}
@@ -0,0 +1,197 @@
+package com.ausganslage.ausgangslageBackend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Issues and verifies stateless HMAC-SHA256 session tokens.
+ * Token format: v1.{keyId}.{userId}.{expiresEpochSeconds}.{base64url(mac)}
+ *
+ * Keys come from app.auth.token.keys-file (reloaded while running, so keys can be
+ * rotated without a restart), else app.auth.token.secret, else a random key per process.
+ * A keys file holds "active-key=&lt;id&gt;" plus one "key.&lt;id&gt;=&lt;base64 secret&gt;" per key;
+ * retired keys stay listed until the tokens they signed have expired.
+ */
+@Component
+public class SessionTokenService {
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Duration ttl;
+    private final Path keysFile;
+    private final Clock clock;
+    private volatile KeyRing keyRing;
+    private volatile FileTime keysFileModified;
+
+    public SessionTokenService(@Value("${app.auth.token.ttl:12h}") Duration ttl,
+            @Value("${app.auth.token.keys-file:}") String keysFile,
+            @Value("${app.auth.token.secret:}") String secret) {
+        this.ttl = ttl;
+        this.keysFile = keysFile.isBlank() ? null : Path.of(keysFile);
+        this.clock = Clock.systemUTC();
+        if (this.keysFile != null) {
+            reloadKeys();
+            if (keyRing == null) {
+                throw new IllegalStateException("Unable to load session token keys from " + keysFile);
+            }
+        } else if (!secret.isBlank()) {
+            this.keyRing = KeyRing.single("default", Base64.getDecoder().decode(secret));
+        } else {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            this.keyRing = KeyRing.single("ephemeral", random);
+            log.warn("No session token key configured; using a random key, tokens will not survive a restart");
+        }
+    }
+
+    public record SessionToken(String value, Instant expiresAt) {
+    }
+
+    /**
+     * Issue a token for the user, signed with the active key
+     */
+    public SessionToken issue(Long userId) {
+        KeyRing ring = keyRing;
+        Instant expiresAt = clock.instant().plus(ttl);
+        String payload = VERSION + "." + ring.activeKeyId() + "." + userId + "." + expiresAt.getEpochSecond();
+        byte[] mac = ring.keys().get(ring.activeKeyId()).sign(payload);
+        return new SessionToken(payload + "." + ENCODER.encodeToString(mac), expiresAt);
+    }
+
+    /**
+     * Verify signature and expiry in memory
+     *
+     * @return the user id, or null if the token is malformed, forged, signed with an unknown key or expired
+     */
+    public Long verify(String token) {
+        int macSeparator = token.lastIndexOf('.');
+        if (macSeparator < 0) {
+            return null;
+        }
+        String payload = token.substring(0, macSeparator);
+        String[] parts = payload.split("\\.");
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            return null;
+        }
+        SigningKey key = keyRing.keys().get(parts[1]);
+        if (key == null) {
+            return null;
+        }
+        try {
+            byte[] expected = key.sign(payload);
+            byte[] actual = Base64.getUrlDecoder().decode(token.substring(macSeparator + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            if (clock.instant().getEpochSecond() >= Long.parseLong(parts[3])) {
+                return null;
+            }
+            return Long.valueOf(parts[2]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Pick up a rotated keys file; keeps the current keys if the file is missing or invalid
+     */
+    @Scheduled(fixedDelayString = "${app.auth.token.keys-reload-interval:30s}")
+    public void reloadKeys() {
+        if (keysFile == null) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(keysFile);
+            if (modified.equals(keysFileModified)) {
+                return;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(keysFile)) {
+                properties.load(in);
+            }
+            keyRing = KeyRing.from(properties);
+            keysFileModified = modified;
+            log.info("Loaded session token keys {} (active: {})", keyRing.keys().keySet(), keyRing.activeKeyId());
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to reload session token keys from {}: {}", keysFile, e.getMessage());
+        }
+    }
+
+    private record KeyRing(String activeKeyId, Map<String, SigningKey> keys) {
+
+        static KeyRing single(String keyId, byte[] secret) {
+            return new KeyRing(keyId, Map.of(keyId, new SigningKey(secret)));
+        }
+
+        static KeyRing from(Properties properties) {
+            String active = properties.getProperty("active-key");
+            Map<String, SigningKey> keys = new HashMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith("key.")) {
+                    String keyId = name.substring(4);
+                    // The key id is a field of the dot-separated token
+                    if (keyId.isEmpty() || keyId.contains(".")) {
+                        throw new IllegalArgumentException("Invalid key id '" + keyId + "': must be non-empty without '.'");
+                    }
+                    keys.put(keyId, new SigningKey(Base64.getDecoder().decode(properties.getProperty(name))));
+                }
+            }
+            if (active == null || !keys.containsKey(active)) {
+                throw new IllegalArgumentException("active-key must name one of the listed keys");
+            }
+            return new KeyRing(active, Map.copyOf(keys));
+        }
+    }
+
+    /**
+     * Initialised Mac prototype; cloning it is much cheaper than Mac.getInstance + init per token
+     */
+    private static final class SigningKey {
+        private final Mac prototype;
+
+        SigningKey(byte[] secret) {
+            if (secret.length < 32) {
+                throw new IllegalArgumentException("Session token keys must be at least 256 bits");
+            }
+            try {
+                prototype = Mac.getInstance(ALGORITHM);
+                prototype.init(new SecretKeySpec(secret, ALGORITHM));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        byte[] sign(String payload) {
+            try {
+                Mac mac = (Mac) prototype.clone();
+                return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ausganslage.ausgangslageBackend.security;
+
+import com.ausganslage.ausgangslageBackend.metrics.ErrorMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Binds token-authenticated requests to the token's user: a userId path variable or
+ * query parameter naming another user is rejected with 403
+ */
+@Component
+public class SessionUserInterceptor implements HandlerInterceptor {
+    private static final String USER_ID = "userId";
+    private static final String ACCESS_DENIED = "ACCESS_DENIED";
+
+    private final ObjectMapper objectMapper;
+    private final ErrorMetrics errorMetrics;
+
+    public SessionUserInterceptor(ObjectMapper objectMapper, ErrorMetrics errorMetrics) {
+        this.objectMapper = objectMapper;
+        this.errorMetrics = errorMetrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        Long current = SessionContext.currentUserId();
+        if (current == null) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (namesOtherUser(pathVariables != null ? pathVariables.get(USER_ID) : null, current)
+                || namesOtherUser(request.getParameter(USER_ID), current)) {
+            errorMetrics.record(ACCESS_DENIED, HttpStatus.FORBIDDEN.value());
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getWriter(),
+                    Map.of("message", "Session token belongs to another user", "errorCode", ACCESS_DENIED));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Malformed ids pass, the controller rejects them with 400
+     */
+    private static boolean namesOtherUser(String userId, Long current) {
+        if (userId == null) {
+            return false;
+        }
+        try {
+            return !current.equals(Long.valueOf(userId));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentCursor;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentOwner;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.dto.GenreBucketCount;
+import com.ausganslage.ausgangslageBackend.dto.ScheduledInterval;
+import com.ausganslage.ausgangslageBackend.dto.SearchDocument;
+import com.ausganslage.ausgangslageBackend.dto.StatsBucket;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRollupRepository;
+import com.ausganslage.ausgangslageBackend.repository.ArchivedAppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for past one-off appointments.
+ * <p>
+ * A nightly job (AppointmentArchiveJob) moves one-off appointments older than the horizon into appointments_archive,
+ * one batch per transaction: the rows are locked, copied with one INSERT ... SELECT and deleted
+ * with one DELETE. Series stay where they are, they keep producing occurrences.
+ * <p>
+ * Read paths ask the archive only for ranges that reach back to its newest date, which is read
+ * at startup and raised by every run before its first batch commits; an empty archive costs no
+ * statement. They query the appointments table first and the archive second and drop duplicate
+ * ids, so a row moved in between is seen exactly once. Archived appointments are read-only apart
+ * from deletion. With several instances, every instance must run the job on the same schedule.
+ */
+@Component
+public class AppointmentArchive {
+    private static final Logger log = LoggerFactory.getLogger(AppointmentArchive.class);
+
+    private final ArchivedAppointmentRepository archiveRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Period horizon;
+    private final int batchSize;
+    private final Counter moved;
+
+    // Newest date the archive may hold; null while it is empty
+    private volatile LocalDate newestArchived;
+
+    public AppointmentArchive(ArchivedAppointmentRepository archiveRepository,
+            AppointmentRepository appointmentRepository, AppointmentRollupRepository rollupRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.archive.horizon:1y}") Period horizon,
+            @Value("${app.archive.batch-size:1000}") int batchSize,
+            MeterRegistry meterRegistry) {
+        this.archiveRepository = archiveRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+        this.moved = Counter.builder("app.archive.moved")
+                .description("Appointments moved into the archive")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void loadNewestArchived() {
+        newestArchived = archiveRepository.findNewestDate().orElse(null);
+    }
+
+    /**
+     * Move all one-off appointments dated before the horizon into the archive
+     *
+     * @return number of moved appointments
+     */
+    public int archivePastAppointments() {
+        LocalDate cutoff = cutoff();
+        // Announced before the first batch commits, so reads never miss a moved row
+        LocalDate newest = cutoff.minusDays(1);
+        if (newestArchived == null || newestArchived.isBefore(newest)) {
+            newestArchived = newest;
+        }
+        long started = System.nanoTime();
+        int total = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> moveBatch(cutoff));
+            total += batch;
+            moved.increment(batch);
+        } while (batch == batchSize);
+        if (total > 0) {
+            log.info("Archived {} appointments before {} in {} ms", total, cutoff,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+        return total;
+    }
+
+    private int moveBatch(LocalDate cutoff) {
+        List<Long> ids = appointmentRepository.findArchivableIds(cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archiveRepository.copyFromAppointments(ids);
+        appointmentRepository.deleteAllByIdIn(ids);
+        return ids.size();
+    }
+
+    /**
+     * First date that stays in the appointments table
+     */
+    LocalDate cutoff() {
+        return LocalDate.now().minus(horizon);
+    }
+
+    /**
+     * Whether the archive may hold appointments on or after from
+     */
+    boolean reaches(LocalDate from) {
+        LocalDate newest = newestArchived;
+        return newest != null && !from.isAfter(newest);
+    }
+
+    private boolean inUse() {
+        return newestArchived != null;
+    }
+
+    List<AppointmentView> views(Long userId) {
+        return inUse() ? archiveRepository.findViewsByUserId(userId) : List.of();
+    }
+
+    List<AppointmentView> viewsInRange(Long userId, LocalDate from, LocalDate to) {
+        return reaches(from) ? archiveRepository.findViewsInRange(userId, from, to) : List.of();
+    }
+
+    List<AppointmentView> page(Long userId, LocalDate from, LocalDate to, AppointmentCursor after, Limit limit) {
+        if (!reaches(from)) {
+            return List.of();
+        }
+        return after == null
+                ? archiveRepository.findPage(userId, from, to, limit)
+                : archiveRepository.findPageAfter(userId, from, to, after.fromDate(), after.fromTime(), after.id(),
+                        limit);
+    }
+
+    List<ScheduledInterval> intervals(Long userId, LocalDate from, LocalDate to) {
+        return reaches(from) ? archiveRepository.findIntervals(userId, from, to) : List.of();
+    }
+
+    List<GenreBucketCount> counts(Long userId, StatsBucket bucket, LocalDate from, LocalDate to) {
+        if (!reaches(from)) {
+            return List.of();
+        }
+        return switch (bucket) {
+            case DAY -> archiveRepository.countByGenreAndDay(userId, from, to);
+            case WEEK -> archiveRepository.countByGenreAndWeek(userId, from, to);
+            case MONTH -> archiveRepository.countByGenreAndMonth(userId, from, to);
+        };
+    }
+
+    /**
+     * Must be consumed inside a transaction and closed afterwards
+     */
+    Stream<AppointmentView> stream(Long userId) {
+        return inUse() ? archiveRepository.streamViewsByUserId(userId) : Stream.empty();
+    }
+
+    List<AppointmentView> viewsByIds(Collection<Long> ids) {
+        return inUse() && !ids.isEmpty() ? archiveRepository.findViewsByIdIn(ids) : List.of();
+    }
+
+    List<SearchDocument> searchDocuments(Long userId) {
+        return inUse() ? archiveRepository.findSearchDocumentsByUserId(userId) : List.of();
+    }
+
+    List<SearchDocument> searchDocumentsByIds(Collection<Long> ids) {
+        return inUse() && !ids.isEmpty() ? archiveRepository.findSearchDocumentsByIdIn(ids) : List.of();
+    }
+
+    Optional<AppointmentOwner> ownerOf(Long id) {
+        return inUse() ? archiveRepository.findOwnerById(id) : Optional.empty();
+    }
+
+    List<AppointmentOwner> owners(Collection<Long> ids) {
+        return inUse() ? archiveRepository.findOwnersByIdIn(ids) : List.of();
+    }
+
+    /**
+     * Delete archived appointments by id, keeping the rollup in step; must run in a transaction
+     */
+    int delete(Collection<Long> ids) {
+        if (!inUse()) {
+            return 0;
+        }
+        rollupRepository.subtractArchived(ids);
+        return archiveRepository.deleteAllByIdIn(ids);
+    }
+
+    /**
+     * Delete a user's archived appointments within [from, to]; must run in a transaction
+     */
+    int deleteInRange(Long userId, LocalDate from, LocalDate to) {
+        if (!reaches(from)) {
+            return 0;
+        }
+        rollupRepository.subtractArchivedInRange(userId, from, to);
+        return archiveRepository.deleteInRange(userId, from, to);
+    }
+
+    /**
+     * Merge two lists in calendar order, keeping a row present in both (moved meanwhile) once
+     */
+    static List<AppointmentView> merge(List<AppointmentView> current, List<AppointmentView> archived) {
+        if (archived.isEmpty()) {
+            return current;
+        }
+        List<AppointmentView> merged = new ArrayList<>(current.size() + archived.size());
+        int i = 0;
+        int j = 0;
+        while (i < current.size() && j < archived.size()) {
+            int order = OccurrenceExpander.CALENDAR_ORDER.compare(current.get(i), archived.get(j));
+            if (order < 0) {
+                merged.add(current.get(i++));
+            } else if (order > 0) {
+                merged.add(archived.get(j++));
+            } else {
+                merged.add(current.get(i++));
+                j++;
+            }
+        }
+        merged.addAll(current.subList(i, current.size()));
+        merged.addAll(archived.subList(j, archived.size()));
+        return merged;
+    }
+}
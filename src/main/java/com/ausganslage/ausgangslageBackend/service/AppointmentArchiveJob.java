@@ -0,0 +1,29 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly trigger for AppointmentArchive. Beans with @Scheduled methods are created at startup even
+ * under lazy initialization, so the archive and its repositories are looked up on the first run.
+ */
+@Component
+public class AppointmentArchiveJob {
+    private final ObjectProvider<AppointmentArchive> archive;
+    private final boolean enabled;
+
+    public AppointmentArchiveJob(ObjectProvider<AppointmentArchive> archive,
+            @Value("${app.archive.enabled:true}") boolean enabled) {
+        this.archive = archive;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void run() {
+        if (enabled) {
+            archive.getObject().archivePastAppointments();
+        }
+    }
+}
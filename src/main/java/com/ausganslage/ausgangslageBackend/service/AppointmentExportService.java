@@ -0,0 +1,221 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.exception.InvalidAppointmentDataException;
+import com.ausganslage.ausgangslageBackend.exception.UserNotFoundException;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Service for exporting a user's full appointment history
+ * Rows are streamed from a database cursor straight to the output and detached
+ * after writing, so memory use stays constant regardless of history size.
+ * Archived appointments are merged in from a second cursor in the same order.
+ */
+@Service
+public class AppointmentExportService {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchive archive;
+    private final UserService userService;
+    private final ReadYourWrites readYourWrites;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter viewWriter;
+
+    public AppointmentExportService(AppointmentRepository appointmentRepository, AppointmentArchive archive,
+            UserService userService, ReadYourWrites readYourWrites, EntityManager entityManager,
+            ObjectMapper objectMapper) {
+        this.appointmentRepository = appointmentRepository;
+        this.archive = archive;
+        this.userService = userService;
+        this.readYourWrites = readYourWrites;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.viewWriter = objectMapper.writerFor(AppointmentView.class);
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        Format(String contentType, String fileExtension) {
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        /**
+         * @throws InvalidAppointmentDataException if the format is not supported
+         */
+        public static Format parse(String format) throws InvalidAppointmentDataException {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidAppointmentDataException("Unsupported export format: " + format);
+            }
+        }
+    }
+
+    /**
+     * Check the user before the response is committed
+     *
+     * @throws UserNotFoundException if user doesn't exist
+     */
+    public void requireUser(Long userId) throws UserNotFoundException {
+        if (!userService.userExists(userId)) {
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+    }
+
+    /**
+     * Write all appointments of a user to the output stream
+     * The output stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public void exportAppointments(Long userId, Format format, OutputStream out) throws IOException {
+        readYourWrites.reading(userId);
+        try (Stream<Appointment> current = appointmentRepository.streamByUserId(userId);
+                Stream<AppointmentView> archived = archive.stream(userId)) {
+            Iterator<AppointmentView> rows = new MergingIterator(current.map(this::toDetachedView).iterator(),
+                    archived.iterator());
+            if (format == Format.CSV) {
+                writeCsv(rows, out);
+            } else {
+                writeNdjson(rows, out);
+            }
+        }
+    }
+
+    private AppointmentView toDetachedView(Appointment appointment) {
+        AppointmentView view = AppointmentView.of(appointment);
+        entityManager.detach(appointment);
+        return view;
+    }
+
+    private void writeNdjson(Iterator<AppointmentView> rows, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            while (rows.hasNext()) {
+                viewWriter.writeValue(generator, rows.next());
+            }
+            generator.writeRaw('\n');
+        }
+    }
+
+    private void writeCsv(Iterator<AppointmentView> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,name,description,fromDate,fromTime,toTime,genre,notes,"
+                + "recurrence,recurrenceInterval,recurrenceUntil\r\n");
+        while (rows.hasNext()) {
+            AppointmentView appointment = rows.next();
+            writer.write(String.valueOf(appointment.id()));
+            writeCsvField(writer, appointment.name());
+            writeCsvField(writer, appointment.description());
+            writeCsvField(writer, String.valueOf(appointment.fromDate()));
+            writeCsvField(writer, format(appointment.fromTime()));
+            writeCsvField(writer, format(appointment.toTime()));
+            writeCsvField(writer, appointment.genre());
+            writeCsvField(writer, appointment.notes());
+            writeCsvField(writer, appointment.recurrence() != null ? appointment.recurrence().name() : null);
+            writeCsvField(writer, appointment.recurrenceInterval() != null
+                    ? appointment.recurrenceInterval().toString() : null);
+            writeCsvField(writer, appointment.recurrenceUntil() != null
+                    ? appointment.recurrenceUntil().toString() : null);
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private static String format(LocalTime time) {
+        return time != null ? time.format(TIME_FORMAT) : null;
+    }
+
+    /**
+     * Write a leading separator and the value, quoted per RFC 4180 when needed
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Merges two cursors in calendar order; a row found in both (moved to the archive meanwhile) is returned once
+     */
+    private static final class MergingIterator implements Iterator<AppointmentView> {
+        private final Iterator<AppointmentView> current;
+        private final Iterator<AppointmentView> archived;
+        private AppointmentView nextCurrent;
+        private AppointmentView nextArchived;
+
+        MergingIterator(Iterator<AppointmentView> current, Iterator<AppointmentView> archived) {
+            this.current = current;
+            this.archived = archived;
+            this.nextCurrent = current.hasNext() ? current.next() : null;
+            this.nextArchived = archived.hasNext() ? archived.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextCurrent != null || nextArchived != null;
+        }
+
+        @Override
+        public AppointmentView next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int order = nextCurrent == null ? 1 : nextArchived == null ? -1
+                    : OccurrenceExpander.CALENDAR_ORDER.compare(nextCurrent, nextArchived);
+            AppointmentView next = order <= 0 ? nextCurrent : nextArchived;
+            if (order <= 0) {
+                nextCurrent = current.hasNext() ? current.next() : null;
+            }
+            if (order >= 0) {
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+            return next;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentChange;
+import com.ausganslage.ausgangslageBackend.dto.ImportReport;
+import com.ausganslage.ausgangslageBackend.exception.InvalidAppointmentDataException;
+import com.ausganslage.ausgangslageBackend.exception.UserNotFoundException;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRollupRepository;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for bulk appointment import
+ * Streams a JSON array or NDJSON body row by row and inserts valid rows in
+ * JDBC batches, one transaction per batch, so memory use does not grow with the input
+ */
+@Service
+public class AppointmentImportService {
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentRollupRepository rollupRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final CalendarCache calendarCache;
+    private final ScheduleIndex scheduleIndex;
+    private final SearchIndex searchIndex;
+    private final ChangeFeed changeFeed;
+    private final ReadYourWrites readYourWrites;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader appointmentReader;
+    private final int batchSize;
+
+    public AppointmentImportService(AppointmentRepository appointmentRepository,
+            AppointmentRollupRepository rollupRepository, UserRepository userRepository,
+            UserService userService, CalendarCache calendarCache, ScheduleIndex scheduleIndex, SearchIndex searchIndex,
+            ChangeFeed changeFeed, ReadYourWrites readYourWrites,
+            EntityManager entityManager, TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper, @Value("${app.import.batch-size:200}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.rollupRepository = rollupRepository;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.calendarCache = calendarCache;
+        this.scheduleIndex = scheduleIndex;
+        this.searchIndex = searchIndex;
+        this.changeFeed = changeFeed;
+        this.readYourWrites = readYourWrites;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.appointmentReader = objectMapper.readerFor(Appointment.class);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import appointments for a user
+     * Every row gets the same validation as a single creation; invalid rows are
+     * reported and skipped without aborting the import. Migrated calendars are
+     * imported as-is, so overlapping rows are not rejected.
+     *
+     * @throws UserNotFoundException           if user doesn't exist
+     * @throws InvalidAppointmentDataException if the body cannot be read at all
+     */
+    public ImportReport importAppointments(Long userId, InputStream body)
+            throws UserNotFoundException, InvalidAppointmentDataException {
+
+        // Checked on the primary, where the rows are written, not on a replica that may lag
+        if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> userService.userExists(userId)))) {
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+
+        ImportProgress progress = new ImportProgress();
+        List<Appointment> batch = new ArrayList<>(batchSize);
+        int row = 0;
+        try (MappingIterator<Appointment> rows = appointmentReader.readValues(body)) {
+            while (true) {
+                Appointment appointment;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    appointment = rows.nextValue();
+                } catch (JsonParseException e) {
+                    // Malformed JSON: the parser cannot resynchronise, stop here
+                    progress.fail(row, "Malformed JSON: " + e.getOriginalMessage(), "INVALID_JSON");
+                    break;
+                } catch (JsonMappingException e) {
+                    progress.fail(row, "Invalid row: " + e.getOriginalMessage(), "INVALID_APPOINTMENT_DATA");
+                    continue;
+                }
+
+                try {
+                    AppointmentService.validateAppointment(appointment);
+                } catch (InvalidAppointmentDataException e) {
+                    progress.fail(row, e.getMessage(), e.getErrorCode());
+                    continue;
+                }
+                AppointmentService.applyDefaults(appointment);
+                appointment.setId(null);
+                batch.add(appointment);
+                if (batch.size() == batchSize) {
+                    insertBatch(userId, batch, row, progress);
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(userId, batch, row, progress);
+            }
+        } catch (IOException e) {
+            if (row == 0) {
+                throw new InvalidAppointmentDataException("Unable to read import body: " + e.getMessage(), e);
+            }
+            progress.fail(row, "Unable to read import body: " + e.getMessage(), "INVALID_JSON");
+        } finally {
+            if (progress.imported > 0) {
+                calendarCache.evictUser(userId);
+                scheduleIndex.evictUser(userId);
+                searchIndex.evictUser(userId);
+                changeFeed.publish(userId, AppointmentChange.changed(null, null));
+                readYourWrites.wrote(userId);
+            }
+        }
+        return progress.toReport();
+    }
+
+    /**
+     * Persist one batch in its own transaction and clear the persistence context
+     */
+    private void insertBatch(Long userId, List<Appointment> batch, int lastRow, ImportProgress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                UserAccount user = userRepository.getReferenceById(userId);
+                for (Appointment appointment : batch) {
+                    appointment.setUser(user);
+                }
+                appointmentRepository.saveAll(batch);
+                entityManager.flush();
+                rollupRepository.addAppointments(batch.stream().map(Appointment::getId).toList(), 1);
+                entityManager.clear();
+            });
+            progress.imported += batch.size();
+        } catch (RuntimeException e) {
+            progress.failBatch(lastRow, batch.size(), "Batch insert failed: " + e.getMessage());
+        }
+        batch.clear();
+    }
+
+    private static class ImportProgress {
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+        private boolean errorsDropped;
+
+        void fail(int row, String message, String errorCode) {
+            failed++;
+            report(new ImportReport.RowError(row, message, errorCode));
+        }
+
+        void failBatch(int lastRow, int count, String message) {
+            failed += count;
+            report(new ImportReport.RowError(lastRow,
+                    message + " (" + count + " rows up to row " + lastRow + ")", "BATCH_INSERT_FAILED"));
+        }
+
+        private void report(ImportReport.RowError error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            } else {
+                errorsDropped = true;
+            }
+        }
+
+        ImportReport toReport() {
+            return new ImportReport(imported, failed, List.copyOf(errors), errorsDropped);
+        }
+    }
+}
@@ -1,28 +1,103 @@
 package com.ausganslage.ausgangslageBackend.service;
 
+import com.ausganslage.ausgangslageBackend.dto.AppointmentChange;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentCursor;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentOwner;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentPage;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.dto.FreeSlot;
+import com.ausganslage.ausgangslageBackend.dto.GenreBucketCount;
+import com.ausganslage.ausgangslageBackend.dto.NotesPatch;
+import com.ausganslage.ausgangslageBackend.dto.NotesUpdate;
+import com.ausganslage.ausgangslageBackend.dto.SearchHit;
+import com.ausganslage.ausgangslageBackend.dto.SearchPage;
+import com.ausganslage.ausgangslageBackend.dto.StatsBucket;
+import com.ausganslage.ausgangslageBackend.exception.AccessDeniedException;
+import com.ausganslage.ausgangslageBackend.exception.AppointmentConflictException;
+import com.ausganslage.ausgangslageBackend.exception.FeedUnavailableException;
 import com.ausganslage.ausgangslageBackend.exception.InvalidAppointmentDataException;
+import com.ausganslage.ausgangslageBackend.exception.StaleVersionException;
 import com.ausganslage.ausgangslageBackend.exception.UserNotFoundException;
 import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.RecurrenceExclusion;
 import com.ausganslage.ausgangslageBackend.model.UserAccount;
 import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
-import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRollupRepository;
+import com.ausganslage.ausgangslageBackend.repository.RecurrenceExclusionRepository;
+import com.ausganslage.ausgangslageBackend.security.SessionContext;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for appointment management
  * Handles CRUD operations with proper exception handling and validation
  */
 @Service
+@Timed(value = "app.service", percentiles = { 0.5, 0.95, 0.99 })
 public class AppointmentService {
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_FREE_SLOT_DAYS = 92;
+    static final int MAX_RANGE_DAYS = 366;
+    static final int MAX_BATCH_DELETE = 1000;
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
     private final AppointmentRepository appointmentRepository;
-    private final UserRepository userRepository;
+    private final RecurrenceExclusionRepository exclusionRepository;
+    private final AppointmentRollupRepository rollupRepository;
+    private final UserService userService;
+    private final CalendarCache calendarCache;
+    private final ScheduleIndex scheduleIndex;
+    private final OccurrenceExpander occurrenceExpander;
+    private final SearchIndex searchIndex;
+    private final ChangeFeed changeFeed;
+    private final AppointmentArchive archive;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean rejectOverlaps;
 
-    public AppointmentService(AppointmentRepository appointmentRepository, UserRepository userRepository) {
+    public AppointmentService(AppointmentRepository appointmentRepository,
+            RecurrenceExclusionRepository exclusionRepository, AppointmentRollupRepository rollupRepository,
+            UserService userService,
+            CalendarCache calendarCache, ScheduleIndex scheduleIndex, OccurrenceExpander occurrenceExpander,
+            SearchIndex searchIndex, ChangeFeed changeFeed, AppointmentArchive archive,
+            ReadYourWrites readYourWrites, TransactionTemplate transactionTemplate,
+            @Value("${app.schedule.reject-overlaps:true}") boolean rejectOverlaps) {
         this.appointmentRepository = appointmentRepository;
-        this.userRepository = userRepository;
+        this.exclusionRepository = exclusionRepository;
+        this.rollupRepository = rollupRepository;
+        this.userService = userService;
+        this.calendarCache = calendarCache;
+        this.scheduleIndex = scheduleIndex;
+        this.occurrenceExpander = occurrenceExpander;
+        this.searchIndex = searchIndex;
+        this.changeFeed = changeFeed;
+        this.archive = archive;
+        this.readYourWrites = readYourWrites;
+        // Cache loaders read in a transaction of their own, so cache hits take no connection
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rejectOverlaps = rejectOverlaps;
     }
 
     /**
@@ -30,15 +105,86 @@ public class AppointmentService {
      * 
      * @throws UserNotFoundException           if user doesn't exist
      * @throws InvalidAppointmentDataException if required fields are missing
+     * @throws AppointmentConflictException    if it overlaps an existing appointment
      */
+    @Transactional
     public Appointment createAppointment(Appointment appointment, Long userId)
-            throws UserNotFoundException, InvalidAppointmentDataException {
+            throws UserNotFoundException, InvalidAppointmentDataException, AppointmentConflictException {
+        return createAppointment(appointment, userId, false);
+    }
+
+    /**
+     * Create new appointment, optionally accepting overlaps with existing ones
+     * For a recurring series only the first occurrence is checked for overlaps.
+     * 
+     * @throws UserNotFoundException           if user doesn't exist
+     * @throws InvalidAppointmentDataException if required fields are missing
+     * @throws AppointmentConflictException    if it overlaps and overlaps are not allowed
+     */
+    @Transactional
+    public Appointment createAppointment(Appointment appointment, Long userId, boolean allowOverlap)
+            throws UserNotFoundException, InvalidAppointmentDataException, AppointmentConflictException {
+
+        validateAppointment(appointment);
+        applyDefaults(appointment);
+
+        try {
+            UserAccount user = userService.getUserReference(userId);
+
+            if (appointment.getFromTime() != null) {
+                // Held until the index has the new appointment, so concurrent creations see each other
+                scheduleIndex.lockDay(userId, appointment.getFromDate());
+            }
+            if (rejectOverlaps && !allowOverlap && appointment.getFromTime() != null) {
+                int start = ScheduleIndex.toMinute(appointment.getFromTime());
+                int end = scheduleIndex.endMinute(appointment.getFromTime(), appointment.getToTime());
+                if (scheduleIndex.day(userId, appointment.getFromDate()).overlaps(start, end)) {
+                    throw new AppointmentConflictException("Appointment overlaps an existing appointment on "
+                            + appointment.getFromDate());
+                }
+            }
 
+            appointment.setUser(user);
+            Appointment saved = appointmentRepository.save(appointment);
+            rollupRepository.add(userId, rollupGenre(saved.getGenre()), saved.getFromDate().withDayOfMonth(1), 1);
+            if (saved.getRecurrence() != null) {
+                // A series touches an open-ended set of days
+                calendarCache.evictUser(userId);
+                scheduleIndex.evictUser(userId);
+            } else {
+                calendarCache.evict(userId, saved.getFromDate());
+                scheduleIndex.onCreated(userId, saved.getId(), saved.getFromDate(), saved.getFromTime(),
+                        saved.getToTime());
+            }
+            searchIndex.onChanged(userId, saved.getId());
+            changeFeed.publish(userId, AppointmentChange.created(AppointmentView.of(saved)));
+            readYourWrites.wrote(userId);
+            return saved;
+        } catch (UserNotFoundException | AppointmentConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error creating appointment: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rollup key for a genre; the rollup stores a missing genre as ""
+     */
+    static String rollupGenre(String genre) {
+        return genre != null ? genre : "";
+    }
+
+    /**
+     * Validate required fields of a new appointment
+     * Shared by single creation and bulk import
+     *
+     * @throws InvalidAppointmentDataException if required fields are missing
+     */
+    static void validateAppointment(Appointment appointment) throws InvalidAppointmentDataException {
         if (appointment == null) {
             throw new InvalidAppointmentDataException("Appointment cannot be null");
         }
 
-        // Validate required fields
         if (appointment.getName() == null || appointment.getName().trim().isEmpty()) {
             throw new InvalidAppointmentDataException("Appointment name is required");
         }
@@ -55,83 +201,653 @@ public class AppointmentService {
             throw new InvalidAppointmentDataException("Appointment genre is required");
         }
 
-        try {
-            UserAccount user = userRepository.findById(userId)
-                    .orElseThrow(() -> new UserNotFoundException("User not found: " + userId));
+        if (appointment.getToTime() != null) {
+            if (appointment.getFromTime() == null) {
+                throw new InvalidAppointmentDataException("Appointment end time (toTime) requires fromTime");
+            }
+            if (!appointment.getToTime().isAfter(appointment.getFromTime())) {
+                throw new InvalidAppointmentDataException("Appointment end time (toTime) must be after fromTime");
+            }
+        }
 
-            appointment.setUser(user);
-            return appointmentRepository.save(appointment);
-        } catch (UserNotFoundException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException("Error creating appointment: " + e.getMessage(), e);
+        if (appointment.getRecurrence() == null) {
+            if (appointment.getRecurrenceInterval() != null || appointment.getRecurrenceUntil() != null) {
+                throw new InvalidAppointmentDataException("recurrenceInterval and recurrenceUntil require recurrence");
+            }
+        } else {
+            if (appointment.getRecurrenceInterval() != null && appointment.getRecurrenceInterval() < 1) {
+                throw new InvalidAppointmentDataException("recurrenceInterval must be at least 1");
+            }
+            if (appointment.getRecurrenceUntil() != null
+                    && appointment.getRecurrenceUntil().isBefore(appointment.getFromDate())) {
+                throw new InvalidAppointmentDataException("recurrenceUntil must not be before fromDate");
+            }
         }
     }
 
     /**
-     * Get appointments for specific user
+     * Fill in what a valid new appointment may leave out: a series repeats every week/month by default
+     */
+    static void applyDefaults(Appointment appointment) {
+        if (appointment.getRecurrence() != null && appointment.getRecurrenceInterval() == null) {
+            appointment.setRecurrenceInterval(1);
+        }
+    }
+
+    /**
+     * Current ETag of a user's calendar, changed by every committed write to it
+     * Cheap enough to check If-None-Match before reading anything.
+     */
+    public String getCalendarETag(Long userId) {
+        return calendarCache.etag(userId);
+    }
+
+    /**
+     * Current ETag of a user's calendar on one date
+     */
+    public String getCalendarETag(Long userId, LocalDate date) {
+        return calendarCache.etag(userId, date);
+    }
+
+    /**
+     * Open a Server-Sent Events stream of the user's committed appointment changes
+     *
+     * @throws UserNotFoundException    if user doesn't exist
+     * @throws FeedUnavailableException if too many streams are open
+     */
+    public SseEmitter subscribeToChanges(Long userId, String lastEventId)
+            throws UserNotFoundException, FeedUnavailableException {
+        if (!userService.userExists(userId)) {
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+        return changeFeed.subscribe(userId, lastEventId);
+    }
+
+    /**
+     * Get appointments for specific user (served from the calendar cache when possible)
      * 
      * @throws UserNotFoundException if user doesn't exist
      */
-    public List<Appointment> getUserAppointments(Long userId)
+    public List<AppointmentView> getUserAppointments(Long userId)
             throws UserNotFoundException {
 
         try {
-            if (!userRepository.existsById(userId)) {
-                throw new UserNotFoundException("User not found: " + userId);
-            }
-            return appointmentRepository.findByUserId(userId);
-        } catch (UserNotFoundException e) {
-            throw e;
+            return calendarCache.get(userId, () -> readOnlyTransaction.execute(status -> {
+                readYourWrites.reading(userId);
+                requireUserUnchecked(userId);
+                return AppointmentArchive.merge(appointmentRepository.findViewsByUserId(userId),
+                        archive.views(userId));
+            }));
+        } catch (MissingUserException e) {
+            throw e.getCause();
         } catch (Exception e) {
             throw new RuntimeException("Error retrieving appointments: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Get appointment by ID
+     * Get appointment by ID, with its user loaded (no session stays open to load it later)
      */
     public Appointment getAppointmentById(Long appointmentId) {
-        return appointmentRepository.findById(appointmentId)
+        return appointmentRepository.findWithUserById(appointmentId)
                 .orElse(null);
     }
 
     /**
-     * Update appointment notes
+     * Update appointment notes unconditionally
+     */
+    @Transactional
+    public AppointmentView updateAppointmentNotes(Long appointmentId, String notes)
+            throws InvalidAppointmentDataException, AccessDeniedException {
+        try {
+            return updateAppointmentNotes(appointmentId, notes, null);
+        } catch (StaleVersionException e) {
+            throw new IllegalStateException("Unconditional update cannot be stale", e);
+        }
+    }
+
+    /**
+     * Update appointment notes with a single UPDATE statement
+     * With an expected version (If-Match) the write only applies if nobody saved in between.
+     *
+     * @return the updated appointment, or null if it doesn't exist or is archived (read-only)
+     * @throws StaleVersionException           if expectedVersion is not the current version
+     * @throws InvalidAppointmentDataException if notes are too long
+     * @throws AccessDeniedException           if the appointment belongs to another user than the session's
+     */
+    @Transactional
+    public AppointmentView updateAppointmentNotes(Long appointmentId, String notes, Long expectedVersion)
+            throws StaleVersionException, InvalidAppointmentDataException, AccessDeniedException {
+        if (notes != null && notes.length() > Appointment.MAX_NOTES_LENGTH) {
+            throw new InvalidAppointmentDataException("Notes must not exceed " + Appointment.MAX_NOTES_LENGTH
+                    + " characters");
+        }
+        AppointmentOwner owner = calendarCache.ownerOf(appointmentId, appointmentRepository::findOwnerById);
+        if (owner == null) {
+            return null;
+        }
+        requireAccess(owner.userId());
+
+        int updated = expectedVersion == null
+                ? appointmentRepository.updateNotes(appointmentId, notes)
+                : appointmentRepository.updateNotesIfVersion(appointmentId, notes, expectedVersion);
+        if (updated == 0) {
+            Long currentVersion = appointmentRepository.findVersionById(appointmentId).orElse(null);
+            if (currentVersion == null) {
+                return null;
+            }
+            throw new StaleVersionException(appointmentId, currentVersion);
+        }
+        calendarCache.evict(owner);
+        searchIndex.onChanged(owner.userId(), appointmentId);
+        AppointmentView view = appointmentRepository.findViewById(appointmentId).orElse(null);
+        if (view != null) {
+            changeFeed.publish(owner.userId(), AppointmentChange.notesUpdated(appointmentId, view.version(), view));
+        }
+        readYourWrites.wrote(owner.userId());
+        return view;
+    }
+
+    /**
+     * Apply a text delta to appointment notes in one UPDATE, without reading the current notes
+     *
+     * @return the new version, or null if the appointment doesn't exist or is archived
+     * @throws StaleVersionException           if baseVersion is not the current version
+     * @throws InvalidAppointmentDataException if the patch is malformed, outside the notes or too long
+     * @throws AccessDeniedException           if the appointment belongs to another user than the session's
+     */
+    @Transactional
+    public NotesUpdate patchAppointmentNotes(Long appointmentId, NotesPatch patch)
+            throws StaleVersionException, InvalidAppointmentDataException, AccessDeniedException {
+        if (patch.baseVersion() == null) {
+            throw new InvalidAppointmentDataException("baseVersion is required");
+        }
+        int offset = patch.offset() != null ? patch.offset() : 0;
+        int deleteCount = patch.deleteCount() != null ? patch.deleteCount() : 0;
+        String text = patch.text() != null ? patch.text() : "";
+        if (offset < 0 || deleteCount < 0) {
+            throw new InvalidAppointmentDataException("offset and deleteCount must not be negative");
+        }
+        AppointmentOwner owner = calendarCache.ownerOf(appointmentId, appointmentRepository::findOwnerById);
+        if (owner == null) {
+            return null;
+        }
+        requireAccess(owner.userId());
+
+        int updated = appointmentRepository.spliceNotes(appointmentId, patch.baseVersion(), offset, deleteCount,
+                text, text.length(), Appointment.MAX_NOTES_LENGTH);
+        if (updated == 0) {
+            // Failure path only: find out which condition did not hold
+            Long currentVersion = appointmentRepository.findVersionById(appointmentId).orElse(null);
+            if (currentVersion == null) {
+                return null;
+            }
+            if (!currentVersion.equals(patch.baseVersion())) {
+                throw new StaleVersionException(appointmentId, currentVersion);
+            }
+            throw new InvalidAppointmentDataException("Patch range lies outside the notes or the result exceeds "
+                    + Appointment.MAX_NOTES_LENGTH + " characters");
+        }
+        calendarCache.evict(owner);
+        searchIndex.onChanged(owner.userId(), appointmentId);
+        changeFeed.publish(owner.userId(),
+                AppointmentChange.notesUpdated(appointmentId, patch.baseVersion() + 1, null));
+        readYourWrites.wrote(owner.userId());
+        return new NotesUpdate(appointmentId, patch.baseVersion() + 1);
+    }
+
+    /**
+     * Delete appointment with a single DELETE statement
+     * The owner needed for cache eviction is usually already known from earlier edits.
+     *
+     * @return number of deleted appointments (0 or 1)
+     * @throws AccessDeniedException if the appointment belongs to another user than the session's
+     */
+    @Transactional
+    public int deleteAppointment(Long appointmentId) throws AccessDeniedException {
+        AppointmentOwner owner = calendarCache.ownerOf(appointmentId, this::findOwner);
+        if (owner == null) {
+            return 0;
+        }
+        requireAccess(owner.userId());
+        if (owner.recurrence() == null) {
+            scheduleIndex.lockDay(owner.userId(), owner.fromDate());
+        }
+        rollupRepository.addAppointments(List.of(appointmentId), -1);
+        int deleted = appointmentRepository.deleteOneById(appointmentId);
+        if (deleted == 0) {
+            deleted = archive.delete(List.of(appointmentId));
+        }
+        if (deleted > 0) {
+            calendarCache.evict(owner);
+            if (owner.recurrence() != null) {
+                scheduleIndex.evictUser(owner.userId());
+            } else {
+                scheduleIndex.onDeleted(owner.userId(), appointmentId, owner.fromDate());
+            }
+            searchIndex.onChanged(owner.userId(), appointmentId);
+            changeFeed.publish(owner.userId(), AppointmentChange.deleted(appointmentId,
+                    owner.recurrence() == null ? owner.fromDate() : null));
+            readYourWrites.wrote(owner.userId());
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete appointments by id in one set-based statement
+     *
+     * @return number of deleted appointments
+     * @throws InvalidAppointmentDataException if no ids or more than MAX_BATCH_DELETE ids are given
+     * @throws AccessDeniedException           if any appointment belongs to another user than the session's
+     */
+    @Transactional
+    public int deleteAppointments(Collection<Long> appointmentIds)
+            throws InvalidAppointmentDataException, AccessDeniedException {
+        if (appointmentIds == null || appointmentIds.isEmpty()) {
+            throw new InvalidAppointmentDataException("At least one appointment id is required");
+        }
+        if (appointmentIds.size() > MAX_BATCH_DELETE) {
+            throw new InvalidAppointmentDataException("At most " + MAX_BATCH_DELETE + " ids can be deleted at once");
+        }
+
+        List<AppointmentOwner> owners = new ArrayList<>(appointmentRepository.findOwnersByIdIn(appointmentIds));
+        owners.addAll(archive.owners(appointmentIds));
+        if (owners.isEmpty()) {
+            return 0;
+        }
+        for (AppointmentOwner owner : owners) {
+            requireAccess(owner.userId());
+        }
+        rollupRepository.addAppointments(appointmentIds, -1);
+        int deleted = appointmentRepository.deleteAllByIdIn(appointmentIds) + archive.delete(appointmentIds);
+        for (AppointmentOwner owner : owners) {
+            calendarCache.evict(owner);
+            if (owner.recurrence() != null) {
+                scheduleIndex.evictUser(owner.userId());
+            } else {
+                scheduleIndex.evictRange(owner.userId(), owner.fromDate(), owner.fromDate());
+            }
+        }
+        owners.stream().collect(Collectors.groupingBy(AppointmentOwner::userId)).forEach((userId, userOwners) -> {
+            // Ids of other users are simply not found when the index re-reads them
+            appointmentIds.forEach(id -> searchIndex.onChanged(userId, id));
+            changeFeed.publish(userId, changedSpan(userOwners));
+            readYourWrites.wrote(userId);
+        });
+        return deleted;
+    }
+
+    /**
+     * A token-authenticated request may only change its own user's appointments
+     */
+    private static void requireAccess(Long ownerId) throws AccessDeniedException {
+        if (!SessionContext.mayAccess(ownerId)) {
+            throw new AccessDeniedException("Appointment belongs to another user");
+        }
+    }
+
+    /**
+     * Owner of an appointment in the appointments table or the archive
+     */
+    private Optional<AppointmentOwner> findOwner(Long appointmentId) {
+        Optional<AppointmentOwner> owner = appointmentRepository.findOwnerById(appointmentId);
+        return owner.isPresent() ? owner : archive.ownerOf(appointmentId);
+    }
+
+    /**
+     * Change event covering the dates of deleted appointments of one user; any date if a series was among them
+     */
+    private static AppointmentChange changedSpan(List<AppointmentOwner> owners) {
+        LocalDate from = null;
+        LocalDate to = null;
+        for (AppointmentOwner owner : owners) {
+            if (owner.recurrence() != null) {
+                return AppointmentChange.changed(null, null);
+            }
+            from = from == null || owner.fromDate().isBefore(from) ? owner.fromDate() : from;
+            to = to == null || owner.fromDate().isAfter(to) ? owner.fromDate() : to;
+        }
+        return AppointmentChange.changed(from, to);
+    }
+
+    /**
+     * Delete a user's one-off appointments on a date in one statement
+     *
+     * @return number of deleted appointments
+     * @throws UserNotFoundException if user doesn't exist
+     */
+    @Transactional
+    public int deleteUserAppointmentsByDate(Long userId, LocalDate date) throws UserNotFoundException {
+        return deleteUserAppointmentsInRange(userId, date, date);
+    }
+
+    /**
+     * Delete a user's one-off appointments within [from, to] in one statement
+     * Recurring series are left alone; skip occurrences or delete the series by id instead.
+     *
+     * @return number of deleted appointments
+     * @throws UserNotFoundException if user doesn't exist
      */
-    public Appointment updateAppointmentNotes(Long appointmentId, String notes) {
-        Appointment appointment = appointmentRepository.findById(appointmentId).orElse(null);
-        if (appointment != null) {
-            appointment.setNotes(notes);
-            return appointmentRepository.save(appointment);
+    @Transactional
+    public int deleteUserAppointmentsInRange(Long userId, LocalDate from, LocalDate to) throws UserNotFoundException {
+        if (!userService.userExists(userId)) {
+            throw new UserNotFoundException("User not found: " + userId);
         }
-        return null;
+        rollupRepository.subtractOneOffsInRange(userId, from, to);
+        int deleted = from.equals(to)
+                ? appointmentRepository.deleteByUserIdAndFromDate(userId, from)
+                : appointmentRepository.deleteOneOffsInRange(userId, from, to);
+        deleted += archive.deleteInRange(userId, from, to);
+        if (deleted > 0) {
+            calendarCache.evictRange(userId, from, to);
+            scheduleIndex.evictRange(userId, from, to);
+            searchIndex.evictUser(userId);
+            changeFeed.publish(userId, AppointmentChange.changed(from, to));
+            readYourWrites.wrote(userId);
+        }
+        return deleted;
     }
 
     /**
-     * Delete appointment
+     * Skip a single occurrence of a recurring series
+     *
+     * @return false if the appointment doesn't exist
+     * @throws InvalidAppointmentDataException if it is not a series or has no occurrence on that date
+     * @throws AccessDeniedException           if the series belongs to another user than the session's
      */
-    public void deleteAppointment(Long appointmentId) {
-        if (appointmentRepository.existsById(appointmentId)) {
-            appointmentRepository.deleteById(appointmentId);
+    @Transactional
+    public boolean skipOccurrence(Long appointmentId, LocalDate date)
+            throws InvalidAppointmentDataException, AccessDeniedException {
+        Appointment series = appointmentRepository.findById(appointmentId).orElse(null);
+        if (series == null) {
+            return false;
+        }
+        requireAccess(series.getUser().getId());
+        if (series.getRecurrence() == null) {
+            throw new InvalidAppointmentDataException("Appointment " + appointmentId + " is not recurring");
+        }
+        if (OccurrenceExpander.occurrences(series.getFromDate(), series.getRecurrence(),
+                series.getRecurrenceInterval(), series.getRecurrenceUntil(), date, date).isEmpty()) {
+            throw new InvalidAppointmentDataException("Appointment " + appointmentId + " has no occurrence on " + date);
+        }
+        scheduleIndex.lockDay(series.getUser().getId(), date);
+        if (!exclusionRepository.existsByAppointmentIdAndOccurrenceDate(appointmentId, date)) {
+            RecurrenceExclusion exclusion = new RecurrenceExclusion();
+            exclusion.setAppointment(series);
+            exclusion.setOccurrenceDate(date);
+            exclusionRepository.save(exclusion);
         }
+        Long userId = series.getUser().getId();
+        calendarCache.evict(userId, date);
+        scheduleIndex.onDeleted(userId, appointmentId, date);
+        changeFeed.publish(userId, AppointmentChange.occurrenceSkipped(appointmentId, date));
+        readYourWrites.wrote(userId);
+        return true;
     }
 
     /**
-     * Get appointments for specific user on a specific date
+     * Get appointments for specific user on a specific date, including occurrences of
+     * recurring series (served from the calendar cache when possible)
      */
-    public List<Appointment> getUserAppointmentsByDate(Long userId, LocalDate date)
+    public List<AppointmentView> getUserAppointmentsByDate(Long userId, LocalDate date)
             throws UserNotFoundException {
 
         try {
-            if (!userRepository.existsById(userId)) {
+            return calendarCache.get(userId, date, () -> readOnlyTransaction.execute(status -> {
+                readYourWrites.reading(userId);
+                requireUserUnchecked(userId);
+                return occurrenceExpander.window(userId, date, date);
+            }));
+        } catch (MissingUserException e) {
+            throw e.getCause();
+        } catch (Exception e) {
+            throw new RuntimeException("Error retrieving appointments by date: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get one keyset-paginated page of a user's appointments within [from, to]
+     * Pass the nextCursor of the previous page to continue; null starts at the beginning.
+     *
+     * @throws UserNotFoundException           if user doesn't exist
+     * @throws InvalidAppointmentDataException if the range, cursor or page size is invalid
+     */
+    @Transactional(readOnly = true)
+    public AppointmentPage getUserAppointmentsPage(Long userId, LocalDate from, LocalDate to,
+            String cursor, Integer limit) throws UserNotFoundException, InvalidAppointmentDataException {
+
+        LocalDate rangeFrom = from != null ? from : MIN_DATE;
+        LocalDate rangeTo = to != null ? to : MAX_DATE;
+        if (rangeFrom.isAfter(rangeTo)) {
+            throw new InvalidAppointmentDataException("'from' must not be after 'to'");
+        }
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidAppointmentDataException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        AppointmentCursor after = cursor != null && !cursor.isBlank() ? AppointmentCursor.decode(cursor) : null;
+
+        try {
+            readYourWrites.reading(userId);
+            if (!userService.userExists(userId)) {
                 throw new UserNotFoundException("User not found: " + userId);
             }
-            return appointmentRepository.findByUserIdAndFromDate(userId, date);
+            // Fetch one extra row to learn whether another page follows
+            Limit fetch = Limit.of(pageSize + 1);
+            List<AppointmentView> rows = after == null
+                    ? appointmentRepository.findPage(userId, rangeFrom, rangeTo, fetch)
+                    : appointmentRepository.findPageAfter(userId, rangeFrom, rangeTo,
+                            after.fromDate(), after.fromTime(), after.id(), fetch);
+            rows = AppointmentArchive.merge(rows, archive.page(userId, rangeFrom, rangeTo, after, fetch));
+            if (rows.size() > pageSize + 1) {
+                rows = rows.subList(0, pageSize + 1);
+            }
+
+            boolean hasMore = rows.size() > pageSize;
+            List<AppointmentView> items = hasMore ? rows.subList(0, pageSize) : rows;
+            String nextCursor = hasMore ? AppointmentCursor.of(items.get(pageSize - 1)).encode() : null;
+            return new AppointmentPage(items, nextCursor);
         } catch (UserNotFoundException e) {
             throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Error retrieving appointments by date: " + e.getMessage(), e);
+            throw new RuntimeException("Error retrieving appointment page: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get appointments for a user within [from, to] with recurring series expanded into occurrences
+     *
+     * @throws UserNotFoundException           if user doesn't exist
+     * @throws InvalidAppointmentDataException if the range is invalid or longer than a year
+     */
+    @Transactional(readOnly = true)
+    public List<AppointmentView> getUserAppointmentsInRange(Long userId, LocalDate from, LocalDate to)
+            throws UserNotFoundException, InvalidAppointmentDataException {
+
+        if (from.isAfter(to)) {
+            throw new InvalidAppointmentDataException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new InvalidAppointmentDataException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        try {
+            readYourWrites.reading(userId);
+            if (!userService.userExists(userId)) {
+                throw new UserNotFoundException("User not found: " + userId);
+            }
+            return occurrenceExpander.window(userId, from, to);
+        } catch (UserNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error retrieving appointments in range: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Count a user's appointments per genre and day/week/month, grouped in the database
+     * Without from and to, monthly counts come from the rollup table (one row per genre and month).
+     * A recurring series counts once, in the bucket of its first date.
+     *
+     * @throws UserNotFoundException           if user doesn't exist
+     * @throws InvalidAppointmentDataException if the range is incomplete or invalid
+     */
+    @Transactional(readOnly = true)
+    public List<GenreBucketCount> getGenreStatistics(Long userId, StatsBucket bucket, LocalDate from, LocalDate to)
+            throws UserNotFoundException, InvalidAppointmentDataException {
+
+        if ((from == null) != (to == null)) {
+            throw new InvalidAppointmentDataException("from and to must be given together");
+        }
+        if (from == null && bucket != StatsBucket.MONTH) {
+            throw new InvalidAppointmentDataException("from and to are required for " + bucket + " statistics");
+        }
+        if (from != null && to.isBefore(from)) {
+            throw new InvalidAppointmentDataException("to must not be before from");
+        }
+        readYourWrites.reading(userId);
+        if (!userService.userExists(userId)) {
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+
+        if (from == null) {
+            return rollupRepository.findByUserId(userId);
+        }
+        List<GenreBucketCount> counts = switch (bucket) {
+            case DAY -> appointmentRepository.countByGenreAndDay(userId, from, to);
+            case WEEK -> appointmentRepository.countByGenreAndWeek(userId, from, to);
+            case MONTH -> appointmentRepository.countByGenreAndMonth(userId, from, to);
+        };
+        List<GenreBucketCount> archived = archive.counts(userId, bucket, from, to);
+        return archived.isEmpty() ? counts : addCounts(counts, archived);
+    }
+
+    /**
+     * Sum of two bucket count lists, in bucket and genre order
+     */
+    private static List<GenreBucketCount> addCounts(List<GenreBucketCount> counts, List<GenreBucketCount> more) {
+        // Keyed by genre and bucket, with the count zeroed
+        Map<GenreBucketCount, Long> sums = new HashMap<>();
+        Stream.concat(counts.stream(), more.stream()).forEach(count -> sums.merge(
+                new GenreBucketCount(count.genre(), count.bucket(), 0), count.count(), Long::sum));
+        return sums.entrySet().stream()
+                .map(sum -> new GenreBucketCount(sum.getKey().genre(), sum.getKey().bucket(), sum.getValue()))
+                .sorted(Comparator.comparing(GenreBucketCount::bucket)
+                        .thenComparing(GenreBucketCount::genre, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * Full-text search over a user's appointments (name, description, genre, notes), best match first
+     *
+     * @throws UserNotFoundException           if user doesn't exist
+     * @throws InvalidAppointmentDataException if the query is empty or paging is invalid
+     */
+    @Transactional(readOnly = true)
+    public SearchPage searchAppointments(Long userId, String query, int page, int size)
+            throws UserNotFoundException, InvalidAppointmentDataException {
+
+        if (query == null || query.isBlank()) {
+            throw new InvalidAppointmentDataException("Search query must not be empty");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidAppointmentDataException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        readYourWrites.reading(userId);
+        if (!userService.userExists(userId)) {
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+
+        SearchIndex.Result result = searchIndex.search(userId, query, page * size, size);
+        List<SearchHit> hits = new ArrayList<>(result.ids().length);
+        if (result.ids().length > 0) {
+            Map<Long, AppointmentView> views = new HashMap<>();
+            List<Long> ids = Arrays.stream(result.ids()).boxed().toList();
+            appointmentRepository.findViewsByIdIn(ids).forEach(view -> views.put(view.id(), view));
+            if (views.size() < ids.size()) {
+                archive.viewsByIds(ids.stream().filter(id -> !views.containsKey(id)).toList())
+                        .forEach(view -> views.putIfAbsent(view.id(), view));
+            }
+            for (int i = 0; i < result.ids().length; i++) {
+                AppointmentView view = views.get(result.ids()[i]);
+                if (view != null) {
+                    hits.add(new SearchHit(view, result.scores()[i]));
+                }
+            }
+        }
+        return new SearchPage(hits, result.total(), page, size);
+    }
+
+    /**
+     * Find free windows of at least minMinutes between dayStart and dayEnd on every day in [from, to]
+     * Answered from the schedule index; only days not yet indexed are queried.
+     *
+     * @throws UserNotFoundException           if user doesn't exist
+     * @throws InvalidAppointmentDataException if the range or window is invalid
+     */
+    @Transactional(readOnly = true)
+    public List<FreeSlot> findFreeSlots(Long userId, LocalDate from, LocalDate to,
+            LocalTime dayStart, LocalTime dayEnd, int minMinutes)
+            throws UserNotFoundException, InvalidAppointmentDataException {
+
+        if (from.isAfter(to)) {
+            throw new InvalidAppointmentDataException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_FREE_SLOT_DAYS) {
+            throw new InvalidAppointmentDataException("Date range must not exceed " + MAX_FREE_SLOT_DAYS + " days");
+        }
+        int windowStart = dayStart != null ? ScheduleIndex.toMinute(dayStart) : 0;
+        int windowEnd = dayEnd != null ? ScheduleIndex.toMinute(dayEnd) : ScheduleIndex.MINUTES_PER_DAY;
+        if (windowStart >= windowEnd) {
+            throw new InvalidAppointmentDataException("dayStart must be before dayEnd");
+        }
+        if (minMinutes < 1) {
+            throw new InvalidAppointmentDataException("minMinutes must be positive");
+        }
+
+        try {
+            readYourWrites.reading(userId);
+            if (!userService.userExists(userId)) {
+                throw new UserNotFoundException("User not found: " + userId);
+            }
+            List<FreeSlot> slots = new ArrayList<>();
+            for (Map.Entry<LocalDate, ScheduleIndex.DaySchedule> day : scheduleIndex.days(userId, from, to).entrySet()) {
+                for (int[] window : day.getValue().freeWindows(windowStart, windowEnd, minMinutes)) {
+                    slots.add(new FreeSlot(day.getKey(), toTime(window[0]), toTime(window[1])));
+                }
+            }
+            return slots;
+        } catch (UserNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error finding free slots: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Minute of day to time; the end of the day maps to LocalTime.MAX, which FreeSlot renders as 24:00
+     */
+    private static LocalTime toTime(int minute) {
+        return minute >= ScheduleIndex.MINUTES_PER_DAY ? LocalTime.MAX : LocalTime.of(minute / 60, minute % 60);
+    }
+
+    /**
+     * Existence check usable inside cache loaders, which cannot throw checked exceptions
+     */
+    private void requireUserUnchecked(Long userId) {
+        if (!userService.userExists(userId)) {
+            throw new MissingUserException(new UserNotFoundException("User not found: " + userId));
+        }
+    }
+
+    private static class MissingUserException extends RuntimeException {
+        MissingUserException(UserNotFoundException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized UserNotFoundException getCause() {
+            return (UserNotFoundException) super.getCause();
         }
     }
 }
@@ -0,0 +1,219 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentOwner;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of appointment lists per user and per user-day.
+ * Bounded by the total number of cached appointments and a write TTL;
+ * hit/miss/eviction counters are published as "cache.*" metrics.
+ * <p>
+ * Every eviction also stamps the user (and day) with a new change version once the
+ * surrounding transaction commits; calendar ETags are built from these stamps.
+ */
+@Component
+public class CalendarCache {
+    private final Cache<Long, List<AppointmentView>> byUser;
+    private final Cache<UserDay, List<AppointmentView>> byUserDay;
+    // Owner and date never change for an appointment id, so entries need no invalidation
+    private final Cache<Long, AppointmentOwner> owners;
+
+    // Change versions: stamps come from one increasing sequence, so a stamp never repeats.
+    // When a stamp is evicted its value is folded into a fallback (the user's wide stamp,
+    // or the floor for unknown users), which keeps versions from ever going backwards.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong floor = new AtomicLong();
+    private final Cache<Long, UserStamps> userStamps;
+    private final Cache<UserDay, Long> dayStamps;
+
+    public CalendarCache(@Value("${app.calendar-cache.max-appointments:200000}") long maxAppointments,
+            @Value("${app.calendar-cache.expire-after-write:10m}") Duration expireAfterWrite,
+            @Value("${app.calendar-cache.max-versions:1000000}") long maxVersions,
+            MeterRegistry meterRegistry) {
+        // Each list weighs its size plus one so empty calendars still count
+        this.byUser = Caffeine.newBuilder()
+                .maximumWeight(maxAppointments)
+                .<Long, List<AppointmentView>>weigher((key, value) -> value.size() + 1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.byUserDay = Caffeine.newBuilder()
+                .maximumWeight(maxAppointments)
+                .<UserDay, List<AppointmentView>>weigher((key, value) -> value.size() + 1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+        this.userStamps = Caffeine.newBuilder()
+                .maximumSize(maxVersions)
+                .<Long, UserStamps>evictionListener((userId, stamps, cause) ->
+                        floor.accumulateAndGet(stamps.latest.get(), Math::max))
+                .build();
+        this.dayStamps = Caffeine.newBuilder()
+                .maximumSize(maxVersions)
+                .<UserDay, Long>evictionListener((day, stamp, cause) ->
+                        stampsOf(day.userId()).wide.accumulateAndGet(stamp, Math::max))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byUser, "calendar.user");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUserDay, "calendar.user-day");
+    }
+
+    /**
+     * Loads and caches a user's appointments. A concurrent eviction for the same
+     * user waits for the load and then removes it, so stale lists are never kept.
+     */
+    public List<AppointmentView> get(Long userId, Supplier<List<AppointmentView>> loader) {
+        return byUser.get(userId, key -> List.copyOf(loader.get()));
+    }
+
+    public List<AppointmentView> get(Long userId, LocalDate date, Supplier<List<AppointmentView>> loader) {
+        return byUserDay.get(new UserDay(userId, date), key -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Quoted version tag of a user's whole calendar; changes with every write to it.
+     * Responses send it as a weak ETag with a suffix per representation.
+     */
+    public String etag(Long userId) {
+        UserStamps stamps = userStamps.getIfPresent(userId);
+        return etag(stamps != null ? stamps.latest.get() : floor.get());
+    }
+
+    /**
+     * Quoted version tag of a user's calendar on one date; changes with writes touching that date
+     */
+    public String etag(Long userId, LocalDate date) {
+        UserStamps stamps = userStamps.getIfPresent(userId);
+        long wide = stamps != null ? stamps.wide.get() : floor.get();
+        Long day = dayStamps.getIfPresent(new UserDay(userId, date));
+        return etag(day != null ? Math.max(day, wide) : wide);
+    }
+
+    private String etag(long stamp) {
+        return "\"" + epoch + "-" + Long.toString(stamp, 36) + "\"";
+    }
+
+    /**
+     * Evict everything affected by a change to one appointment of a user on a date
+     */
+    public void evict(Long userId, LocalDate date) {
+        Runnable invalidate = () -> {
+            byUser.invalidate(userId);
+            byUserDay.invalidate(new UserDay(userId, date));
+        };
+        invalidate.run();
+        // Again after commit: readers may have reloaded the old lists in between. Versions are
+        // only published once the change is visible, so an ETag never labels older data.
+        AfterCommit.run(() -> {
+            invalidate.run();
+            long stamp = sequence.incrementAndGet();
+            dayStamps.asMap().merge(new UserDay(userId, date), stamp, Math::max);
+            stampsOf(userId).latest.accumulateAndGet(stamp, Math::max);
+        });
+    }
+
+    /**
+     * Evict all cached lists of a user, e.g. after changes spanning many dates
+     */
+    public void evictUser(Long userId) {
+        Runnable invalidate = () -> {
+            byUser.invalidate(userId);
+            byUserDay.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+        };
+        invalidate.run();
+        AfterCommit.run(() -> {
+            invalidate.run();
+            stampWide(userId);
+        });
+    }
+
+    /**
+     * Evict the lists of a user whose dates fall within [from, to]
+     */
+    public void evictRange(Long userId, LocalDate from, LocalDate to) {
+        Runnable invalidate = () -> {
+            byUser.invalidate(userId);
+            byUserDay.asMap().keySet().removeIf(key -> key.userId().equals(userId)
+                    && !key.date().isBefore(from) && !key.date().isAfter(to));
+        };
+        invalidate.run();
+        AfterCommit.run(() -> {
+            invalidate.run();
+            stampWide(userId);
+        });
+    }
+
+    private void stampWide(Long userId) {
+        long stamp = sequence.incrementAndGet();
+        UserStamps stamps = stampsOf(userId);
+        stamps.wide.accumulateAndGet(stamp, Math::max);
+        stamps.latest.accumulateAndGet(stamp, Math::max);
+    }
+
+    private UserStamps stampsOf(Long userId) {
+        return userStamps.get(userId, key -> new UserStamps(floor.get()));
+    }
+
+    /**
+     * Owner of an appointment known only by id, or null if it doesn't exist; repeated
+     * edits of the same appointment resolve it from memory instead of the database
+     */
+    public AppointmentOwner ownerOf(Long appointmentId, Function<Long, Optional<AppointmentOwner>> ownerLookup) {
+        return owners.get(appointmentId, id -> ownerLookup.apply(id).orElse(null));
+    }
+
+    /**
+     * Evict the lists containing an appointment known only by id
+     */
+    public void evictAppointment(Long appointmentId, Function<Long, Optional<AppointmentOwner>> ownerLookup) {
+        AppointmentOwner owner = ownerOf(appointmentId, ownerLookup);
+        if (owner != null) {
+            evict(owner);
+        }
+    }
+
+    /**
+     * Evict the lists containing an appointment of the given owner and date
+     */
+    public void evict(AppointmentOwner owner) {
+        if (owner.recurrence() != null) {
+            evictUser(owner.userId());
+        } else {
+            evict(owner.userId(), owner.fromDate());
+        }
+    }
+
+    private record UserDay(Long userId, LocalDate date) {
+    }
+
+    /**
+     * latest: last change of any kind; wide: last change that may touch any date
+     */
+    private static final class UserStamps {
+        private final AtomicLong latest;
+        private final AtomicLong wide;
+
+        UserStamps(long initial) {
+            this.latest = new AtomicLong(initial);
+            this.wide = new AtomicLong(initial);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentChange;
+import com.ausganslage.ausgangslageBackend.exception.FeedUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user Server-Sent Events hub for committed appointment changes.
+ * <p>
+ * Idle subscribers are async requests without a thread. Publishing only appends to each
+ * subscriber's bounded buffer; a small sender pool writes to the sockets, one drain per
+ * subscriber at a time. A subscriber whose buffer overflows loses its backlog and gets a
+ * single "resync" event instead, as does a reconnect whose Last-Event-ID is behind.
+ * <p>
+ * A write cannot be interrupted, so a consumer that stops reading blocks its sender thread until
+ * the container's write timeout. A write still running after send-timeout closes its subscriber
+ * and the pool gets a replacement thread until the write returns (at most sender-threads extra),
+ * so other subscribers keep receiving.
+ */
+@Component
+public class ChangeFeed implements SmartLifecycle {
+    public static final String RESYNC = "resync";
+    static final String READY = "ready";
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final int maxSubscribersPerUser;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final int senderThreads;
+    private final ThreadPoolExecutor sender;
+    private int replacementThreads;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Event ids are epoch-sequence; the latest id per user decides whether a reconnect missed anything.
+    // An evicted user's id is folded into the floor, so missing entries err towards resync.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong floor = new AtomicLong();
+    private final Cache<Long, Long> latestByUser;
+
+    private volatile boolean running;
+
+    private final Counter published;
+    private final Counter resyncs;
+    private final Counter stalled;
+
+    public ChangeFeed(@Value("${app.feed.buffer-size:256}") int bufferSize,
+            @Value("${app.feed.max-subscribers:20000}") int maxSubscribers,
+            @Value("${app.feed.max-subscribers-per-user:8}") int maxSubscribersPerUser,
+            @Value("${app.feed.timeout:30m}") Duration timeout,
+            @Value("${app.feed.sender-threads:4}") int senderThreads,
+            @Value("${app.feed.send-timeout:10s}") Duration sendTimeout,
+            MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.maxSubscribersPerUser = maxSubscribersPerUser;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.senderThreads = senderThreads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "change-feed-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.latestByUser = Caffeine.newBuilder()
+                .maximumSize(1_000_000)
+                .<Long, Long>evictionListener((userId, latest, cause) -> floor.accumulateAndGet(latest, Math::max))
+                .build();
+        Gauge.builder("app.feed.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open change feed connections")
+                .register(meterRegistry);
+        this.published = Counter.builder("app.feed.events")
+                .description("Change events published to the feed")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("app.feed.resyncs")
+                .description("Subscribers told to resync after a buffer overflow or missed events")
+                .register(meterRegistry);
+        this.stalled = Counter.builder("app.feed.stalled")
+                .description("Subscribers closed because a write took longer than the send timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for a user. With the Last-Event-ID of a previous stream, a "resync" event
+     * follows the "ready" event if changes were missed in between.
+     *
+     * @throws FeedUnavailableException if the subscriber limit is reached or the server is stopping
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) throws FeedUnavailableException {
+        if (!running) {
+            throw new FeedUnavailableException("Change feed is shutting down");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new FeedUnavailableException("Too many open change feeds");
+        }
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter(timeoutMillis));
+        AtomicBoolean accepted = new AtomicBoolean();
+        // Atomic with close(), which drops the user's set once it is empty
+        subscribers.compute(userId, (key, userSubscribers) -> {
+            Set<Subscriber> current = userSubscribers != null ? userSubscribers : ConcurrentHashMap.newKeySet();
+            if (current.size() < maxSubscribersPerUser) {
+                current.add(subscriber);
+                accepted.set(true);
+            }
+            return current.isEmpty() ? null : current;
+        });
+        if (!accepted.get()) {
+            subscriberCount.decrementAndGet();
+            throw new FeedUnavailableException("Too many open change feeds for user " + userId);
+        }
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+
+        // Registered first, so nothing published from here on is lost between the check and the stream
+        String currentId = id(sequence.get());
+        subscriber.offer(new Event(currentId, READY, Map.of("userId", userId)));
+        if (lastEventId != null && missedEvents(userId, lastEventId)) {
+            resyncs.increment();
+            subscriber.offer(new Event(currentId, RESYNC, Map.of("reason", "missed-events")));
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Push a change to the user's subscribers once the surrounding transaction commits
+     */
+    public void publish(Long userId, AppointmentChange change) {
+        AfterCommit.run(() -> {
+            long seq = sequence.incrementAndGet();
+            latestByUser.asMap().merge(userId, seq, Math::max);
+            published.increment();
+            Set<Subscriber> userSubscribers = subscribers.get(userId);
+            if (userSubscribers != null) {
+                Event event = new Event(id(seq), change.type(), change);
+                userSubscribers.forEach(subscriber -> subscriber.offer(event));
+            }
+        });
+    }
+
+    /**
+     * Keep idle connections alive through proxies and detect closed ones
+     */
+    @Scheduled(fixedDelayString = "${app.feed.heartbeat-interval:25s}")
+    public void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::heartbeat));
+    }
+
+    /**
+     * Close subscribers whose current write has run longer than the send timeout
+     * A stalled write is noticed within twice the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${app.feed.send-timeout:10s}")
+    public void closeStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            long started = subscriber.sendStarted;
+            if (started != 0 && now - started > sendTimeoutNanos && subscriber.stalled.compareAndSet(false, true)) {
+                stalled.increment();
+                subscriber.close();
+                replaceSender(subscriber);
+            }
+        }));
+    }
+
+    /**
+     * Add a sender thread standing in for the one blocked in the subscriber's write, unless the
+     * write has returned meanwhile or the replacement limit is reached
+     */
+    private synchronized void replaceSender(Subscriber subscriber) {
+        if (subscriber.sendStarted == 0 || replacementThreads >= senderThreads) {
+            return;
+        }
+        subscriber.replaced = true;
+        replacementThreads++;
+        sender.setMaximumPoolSize(senderThreads + replacementThreads);
+        sender.setCorePoolSize(senderThreads + replacementThreads);
+    }
+
+    /**
+     * Remove the replacement once the stalled write has returned
+     */
+    private synchronized void releaseSender(Subscriber subscriber) {
+        if (!subscriber.replaced) {
+            return;
+        }
+        subscriber.replaced = false;
+        replacementThreads--;
+        sender.setCorePoolSize(senderThreads + replacementThreads);
+        sender.setMaximumPoolSize(senderThreads + replacementThreads);
+    }
+
+    private boolean missedEvents(Long userId, String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return true;
+        }
+        long lastSeen;
+        try {
+            lastSeen = Long.parseLong(lastEventId.substring(separator + 1), 36);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        Long latest = latestByUser.getIfPresent(userId);
+        return (latest != null ? latest : floor.get()) > lastSeen;
+    }
+
+    private String id(long seq) {
+        return epoch + "-" + Long.toString(seq, 36);
+    }
+
+    /**
+     * End all streams before the web server shuts down, so open streams don't hold up a graceful shutdown
+     */
+    @Override
+    public void stop() {
+        running = false;
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            subscriber.close();
+            try {
+                subscriber.emitter.complete();
+            } catch (RuntimeException e) {
+                // Connection already gone
+            }
+        }));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * An event waiting in a subscriber's buffer; name null marks a heartbeat comment
+     */
+    private record Event(String id, String name, Object data) {
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        // System.nanoTime() when the current write started, 0 between writes
+        private volatile long sendStarted;
+        // Whether the pool has a replacement thread for this subscriber's stalled write; guarded by ChangeFeed
+        private boolean replaced;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Event event) {
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    // Slow consumer: the backlog is useless once incomplete, replace it with one resync
+                    buffer.clear();
+                    resyncs.increment();
+                    event = new Event(event.id(), RESYNC, Map.of("reason", "buffer-overflow"));
+                }
+                buffer.add(event);
+            }
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            synchronized (buffer) {
+                if (!buffer.isEmpty()) {
+                    return;
+                }
+                buffer.add(new Event(null, null, null));
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (closed.get() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while (!closed.get() && (event = next()) != null) {
+                    sendStarted = System.nanoTime();
+                    emitter.send(event.name() == null
+                            ? SseEmitter.event().comment("heartbeat")
+                            : SseEmitter.event().id(event.id()).name(event.name())
+                                    .data(event.data(), MediaType.APPLICATION_JSON));
+                    sendStarted = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container reports completion or error separately
+                close();
+            } finally {
+                sendStarted = 0;
+                draining.set(false);
+                if (stalled.get()) {
+                    releaseSender(this);
+                }
+            }
+            boolean pending;
+            synchronized (buffer) {
+                pending = !buffer.isEmpty();
+            }
+            if (pending) {
+                scheduleDrain();
+            }
+        }
+
+        private Event next() {
+            synchronized (buffer) {
+                return buffer.poll();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.computeIfPresent(userId, (key, userSubscribers) -> {
+                    userSubscribers.remove(this);
+                    return userSubscribers.isEmpty() ? null : userSubscribers;
+                });
+                subscriberCount.decrementAndGet();
+                synchronized (buffer) {
+                    buffer.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.IdempotentResponse;
+import com.ausganslage.ausgangslageBackend.exception.IdempotencyKeyInProgressException;
+import com.ausganslage.ausgangslageBackend.exception.IdempotencyKeyReusedException;
+import com.ausganslage.ausgangslageBackend.exception.InvalidAppointmentDataException;
+import com.ausganslage.ausgangslageBackend.model.IdempotencyRecord;
+import com.ausganslage.ausgangslageBackend.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for requests that create data.
+ * <p>
+ * The first request with a key runs; its response is recorded under (user, key) with a fingerprint
+ * of the request. Repeats get the recorded response without running again, or
+ * IdempotencyKeyReusedException if their request differs. Concurrent repeats wait for the first
+ * one instead of running alongside it. Responses are kept for ttl; 5xx responses are not kept, so
+ * a retry runs again.
+ * <p>
+ * With store=memory, each instance keeps at most max-keys keys. With store=table, keys are also
+ * claimed in idempotency_keys, which holds across instances and restarts. A repeat waits up to
+ * wait for a request still running with its key, here or on another instance, and then gets
+ * IdempotencyKeyInProgressException. A claim without a response after lease (an instance died
+ * mid-request) counts as abandoned and the next repeat runs; lease must exceed the longest request.
+ */
+@Component
+public class IdempotencyService {
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean table;
+    private final Duration ttl;
+    private final Duration wait;
+    private final Duration lease;
+    private final Counter replayed;
+
+    // Running and recorded requests of this instance; a waiting repeat joins the future
+    private final Cache<Key, CompletableFuture<Recorded>> recent;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.store:memory}") String store,
+            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+            @Value("${app.idempotency.max-keys:100000}") long maxKeys,
+            @Value("${app.idempotency.wait:10s}") Duration wait,
+            @Value("${app.idempotency.lease:30s}") Duration lease,
+            MeterRegistry meterRegistry) {
+        if (!store.equals("memory") && !store.equals("table")) {
+            throw new IllegalArgumentException("app.idempotency.store must be memory or table, not " + store);
+        }
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.table = store.equals("table");
+        this.ttl = ttl;
+        this.wait = wait;
+        this.lease = lease;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+        this.replayed = Counter.builder("app.idempotency.replayed")
+                .description("Requests answered with the recorded response of an earlier request with the same key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * SHA-256 of the request's JSON form
+     */
+    public String fingerprint(Object request) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    /**
+     * Run action once per user and key, or return the response recorded for the key
+     *
+     * @throws InvalidAppointmentDataException    if the key is empty or too long
+     * @throws IdempotencyKeyReusedException      if the key was used with a different fingerprint
+     * @throws IdempotencyKeyInProgressException  if a request with the key is still running after wait
+     */
+    public IdempotentResponse execute(Long userId, String idempotencyKey, String fingerprint,
+            Supplier<IdempotentResponse> action) throws InvalidAppointmentDataException,
+            IdempotencyKeyReusedException, IdempotencyKeyInProgressException {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyRecord.MAX_KEY_LENGTH) {
+            throw new InvalidAppointmentDataException(
+                    "Idempotency-Key must have 1 to " + IdempotencyRecord.MAX_KEY_LENGTH + " characters");
+        }
+        Key key = new Key(userId, idempotencyKey);
+        while (true) {
+            CompletableFuture<Recorded> claim = new CompletableFuture<>();
+            CompletableFuture<Recorded> running = recent.asMap().putIfAbsent(key, claim);
+            if (running == null) {
+                return matching(run(key, fingerprint, action, claim), fingerprint);
+            }
+            Recorded recorded;
+            try {
+                recorded = running.get(wait.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // The first request failed without a response to record; run again
+                continue;
+            } catch (TimeoutException e) {
+                throw new IdempotencyKeyInProgressException();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException();
+            }
+            replayed.increment();
+            return matching(recorded, fingerprint);
+        }
+    }
+
+    private Recorded run(Key key, String fingerprint, Supplier<IdempotentResponse> action,
+            CompletableFuture<Recorded> claim) throws IdempotencyKeyReusedException,
+            IdempotencyKeyInProgressException {
+        try {
+            Recorded recorded = table ? runClaimed(key, fingerprint, action)
+                    : new Recorded(fingerprint, action.get());
+            if (!kept(recorded.response())) {
+                recent.asMap().remove(key, claim);
+            }
+            claim.complete(recorded);
+            return recorded;
+        } catch (Throwable e) {
+            // Removed first, so woken waiters claim the key anew
+            recent.asMap().remove(key, claim);
+            claim.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Recorded runClaimed(Key key, String fingerprint, Supplier<IdempotentResponse> action)
+            throws IdempotencyKeyReusedException, IdempotencyKeyInProgressException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (!claim(key, fingerprint)) {
+            Optional<IdempotencyRecord> existing = transactionTemplate.execute(status ->
+                    repository.findByUserIdAndIdempotencyKey(key.userId(), key.idempotencyKey()));
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                if (!record.getFingerprint().equals(fingerprint)) {
+                    throw new IdempotencyKeyReusedException();
+                }
+                if (record.getStatus() != null) {
+                    replayed.increment();
+                    return new Recorded(fingerprint, new IdempotentResponse(record.getStatus(), record.getBody()));
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IdempotencyKeyInProgressException();
+                }
+                try {
+                    Thread.sleep(POLL_INTERVAL.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IdempotencyKeyInProgressException();
+                }
+            }
+            // Otherwise the key was released, expired or abandoned meanwhile; claim it again
+        }
+        IdempotentResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            release(key);
+            throw e;
+        }
+        if (kept(response)) {
+            transactionTemplate.executeWithoutResult(status -> repository.complete(key.userId(), key.idempotencyKey(),
+                    response.status(), response.body()));
+        } else {
+            release(key);
+        }
+        return new Recorded(fingerprint, response);
+    }
+
+    private boolean claim(Key key, String fingerprint) {
+        Instant now = Instant.now();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.deleteStale(key.userId(), key.idempotencyKey(), now.minus(ttl), now.minus(lease));
+                repository.claim(key.userId(), key.idempotencyKey(), fingerprint, now);
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void release(Key key) {
+        transactionTemplate.executeWithoutResult(status -> repository.release(key.userId(), key.idempotencyKey()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        if (table) {
+            transactionTemplate.executeWithoutResult(status -> repository.deleteCreatedBefore(Instant.now().minus(ttl)));
+        }
+    }
+
+    private static boolean kept(IdempotentResponse response) {
+        return response.status() < 500;
+    }
+
+    private static IdempotentResponse matching(Recorded recorded, String fingerprint)
+            throws IdempotencyKeyReusedException {
+        if (!recorded.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        return recorded.response();
+    }
+
+    private record Key(Long userId, String idempotencyKey) {
+    }
+
+    private record Recorded(String fingerprint, IdempotentResponse response) {
+    }
+}
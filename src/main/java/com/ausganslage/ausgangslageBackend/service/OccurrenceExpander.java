@@ -0,0 +1,137 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.model.Recurrence;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.RecurrenceExclusionRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expands recurring appointment series into occurrences for a requested date window.
+ * Work is proportional to the occurrences inside the window, not to the age of the series.
+ */
+@Component
+public class OccurrenceExpander {
+    /**
+     * Calendar order used by all read paths: date, then time (all-day first), then id
+     */
+    public static final Comparator<AppointmentView> CALENDAR_ORDER = Comparator
+            .comparing(AppointmentView::fromDate)
+            .thenComparing(AppointmentView::fromTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(AppointmentView::id);
+
+    private final AppointmentRepository appointmentRepository;
+    private final RecurrenceExclusionRepository exclusionRepository;
+    private final AppointmentArchive archive;
+
+    public OccurrenceExpander(AppointmentRepository appointmentRepository,
+            RecurrenceExclusionRepository exclusionRepository, AppointmentArchive archive) {
+        this.appointmentRepository = appointmentRepository;
+        this.exclusionRepository = exclusionRepository;
+        this.archive = archive;
+    }
+
+    /**
+     * Occurrences of all of a user's series within [from, to], without skipped dates
+     */
+    public List<AppointmentView> expand(Long userId, LocalDate from, LocalDate to) {
+        return expandSeries(appointmentRepository.findSeriesViews(userId, from, to), from, to);
+    }
+
+    /**
+     * Calendar for [from, to]: one-off appointments and series occurrences in calendar order
+     * Archived appointments are only looked up when the window reaches back past the archive horizon.
+     */
+    public List<AppointmentView> window(Long userId, LocalDate from, LocalDate to) {
+        List<AppointmentView> appointments = new ArrayList<>();
+        List<AppointmentView> series = new ArrayList<>();
+        for (AppointmentView view : appointmentRepository.findViewsInWindow(userId, from, to)) {
+            (view.recurrence() == null ? appointments : series).add(view);
+        }
+        List<AppointmentView> archived = archive.viewsInRange(userId, from, to);
+        if (!archived.isEmpty()) {
+            Set<Long> current = new HashSet<>();
+            appointments.forEach(view -> current.add(view.id()));
+            archived.stream().filter(view -> !current.contains(view.id())).forEach(appointments::add);
+        }
+        appointments.addAll(expandSeries(series, from, to));
+        appointments.sort(CALENDAR_ORDER);
+        return appointments;
+    }
+
+    private List<AppointmentView> expandSeries(List<AppointmentView> series, LocalDate from, LocalDate to) {
+        if (series.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Set<LocalDate>> excluded = new HashMap<>();
+        exclusionRepository.findExcluded(series.stream().map(AppointmentView::id).toList(), from, to)
+                .forEach(exclusion -> excluded
+                        .computeIfAbsent(exclusion.getSeriesId(), id -> new HashSet<>())
+                        .add(exclusion.getOccurrenceDate()));
+
+        List<AppointmentView> occurrences = new ArrayList<>();
+        for (AppointmentView view : series) {
+            Set<LocalDate> skipped = excluded.getOrDefault(view.id(), Set.of());
+            for (LocalDate date : occurrences(view.fromDate(), view.recurrence(), view.recurrenceInterval(),
+                    view.recurrenceUntil(), from, to)) {
+                if (!skipped.contains(date)) {
+                    occurrences.add(view.onDate(date));
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Occurrence dates of a rule within [from, to]
+     * Monthly dates are always derived from the start date, so a series starting on
+     * the 31st falls on the last day of shorter months without drifting.
+     */
+    static List<LocalDate> occurrences(LocalDate start, Recurrence recurrence, Integer interval,
+            LocalDate until, LocalDate from, LocalDate to) {
+        LocalDate last = until != null && until.isBefore(to) ? until : to;
+        int step = interval != null ? interval : 1;
+        List<LocalDate> dates = new ArrayList<>();
+        if (last.isBefore(start)) {
+            return dates;
+        }
+
+        if (recurrence == Recurrence.WEEKLY) {
+            long stepDays = 7L * step;
+            long first = from.isAfter(start) ? ceilDiv(ChronoUnit.DAYS.between(start, from), stepDays) : 0;
+            for (LocalDate date = start.plusDays(first * stepDays); !date.isAfter(last); date = date.plusDays(stepDays)) {
+                dates.add(date);
+            }
+        } else if (recurrence == Recurrence.MONTHLY) {
+            long first = from.isAfter(start)
+                    ? ceilDiv(ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(from)), step)
+                    : 0;
+            for (long n = first; ; n++) {
+                LocalDate date = start.plusMonths(n * step);
+                if (date.isAfter(last)) {
+                    break;
+                }
+                if (!date.isBefore(from)) {
+                    dates.add(date);
+                }
+            }
+        }
+        return dates;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.config.ReplicaRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Read-your-writes on top of replica routing: once a user's write commits, that user's
+ * read-only transactions stay on the primary for max-lag, the replication lag tolerated.
+ * Without a replica configured both calls are no-ops.
+ */
+@Component
+public class ReadYourWrites {
+    // Users with a write younger than max-lag; null without a replica
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${app.datasource.replica.url:}") String replicaUrl,
+            @Value("${app.datasource.replica.max-lag:2s}") Duration maxLag,
+            @Value("${app.datasource.replica.max-recent-writers:100000}") long maxRecentWriters) {
+        this.recentWriters = replicaUrl.isEmpty() ? null : Caffeine.newBuilder()
+                .maximumSize(maxRecentWriters)
+                .expireAfterWrite(maxLag)
+                .build();
+    }
+
+    /**
+     * The user's data changes when the current transaction commits
+     */
+    public void wrote(Long userId) {
+        if (recentWriters != null) {
+            AfterCommit.run(() -> recentWriters.put(userId, Boolean.TRUE));
+        }
+    }
+
+    /**
+     * Route the current read-only transaction, which reads the user's data, to the primary
+     * if the replica may not have the user's latest write yet
+     */
+    public void reading(Long userId) {
+        if (recentWriters != null && recentWriters.getIfPresent(userId) != null) {
+            ReplicaRoutingDataSource.requirePrimary();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.dto.ScheduledInterval;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory interval index of timed appointments per user-day.
+ * Days are loaded on first use and kept current by the write paths of
+ * AppointmentService, so overlap checks run in O(log n) without a query.
+ * Appointments without a fromTime (all-day notes) do not block time.
+ * Occurrences of recurring series are indexed under the series id.
+ * <p>
+ * Changes are applied once committed, so a rolled-back write never shows up in the index.
+ * A write holds its day's lock from the overlap check until after that, so two concurrent
+ * creations on one user-day cannot both pass the check.
+ */
+@Component
+public class ScheduleIndex {
+    static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int DAY_LOCK_STRIPES = 256;
+
+    private final AppointmentRepository appointmentRepository;
+    private final OccurrenceExpander occurrenceExpander;
+    private final AppointmentArchive archive;
+    private final int defaultDurationMinutes;
+    private final Cache<UserDay, DaySchedule> days;
+    private final AtomicLong modifications = new AtomicLong();
+    private final ReentrantLock[] dayLocks = new ReentrantLock[DAY_LOCK_STRIPES];
+
+    public ScheduleIndex(AppointmentRepository appointmentRepository, OccurrenceExpander occurrenceExpander,
+            AppointmentArchive archive,
+            @Value("${app.schedule.default-duration:60m}") Duration defaultDuration,
+            @Value("${app.schedule.index-max-days:100000}") long maxDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.occurrenceExpander = occurrenceExpander;
+        this.archive = archive;
+        this.defaultDurationMinutes = (int) defaultDuration.toMinutes();
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+        for (int i = 0; i < dayLocks.length; i++) {
+            dayLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Lock a user-day until the current transaction completes; must run in a transaction
+     *
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lockDay(Long userId, LocalDate date) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Nothing would release the lock
+            throw new IllegalStateException("Locking a day requires an active transaction");
+        }
+        ReentrantLock lock = dayLocks[Math.floorMod(new UserDay(userId, date).hashCode(), dayLocks.length)];
+        lock.lock();
+        // Completion callbacks run after the commit callbacks that add the creation
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Schedule of one user-day, loaded with a single query on a miss
+     */
+    public DaySchedule day(Long userId, LocalDate date) {
+        DaySchedule schedule = days.getIfPresent(new UserDay(userId, date));
+        return schedule != null ? schedule : days(userId, date, date).get(date);
+    }
+
+    /**
+     * Schedules of every day in [from, to]; days not yet indexed are loaded with one range query
+     */
+    public Map<LocalDate, DaySchedule> days(Long userId, LocalDate from, LocalDate to) {
+        Map<LocalDate, DaySchedule> result = new TreeMap<>();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DaySchedule schedule = days.getIfPresent(new UserDay(userId, date));
+            if (schedule != null) {
+                result.put(date, schedule);
+            } else {
+                missing.add(date);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long modificationsBeforeLoad = modifications.get();
+        Map<LocalDate, DaySchedule> loaded = toDaySchedules(loadIntervals(userId,
+                missing.get(0), missing.get(missing.size() - 1)));
+        // Only cache the load if no write could have slipped in between query and put
+        boolean cacheable = modifications.get() == modificationsBeforeLoad;
+        for (LocalDate date : missing) {
+            DaySchedule schedule = loaded.getOrDefault(date, DaySchedule.EMPTY);
+            if (cacheable) {
+                days.asMap().putIfAbsent(new UserDay(userId, date), schedule);
+            }
+            result.put(date, schedule);
+        }
+        return result;
+    }
+
+    /**
+     * End minute of an appointment, falling back to the default duration
+     */
+    public int endMinute(LocalTime fromTime, LocalTime toTime) {
+        return toTime != null ? toMinute(toTime) : Math.min(toMinute(fromTime) + defaultDurationMinutes, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Add a created appointment once the current transaction commits
+     */
+    public void onCreated(Long userId, Long appointmentId, LocalDate date, LocalTime fromTime, LocalTime toTime) {
+        AfterCommit.run(() -> {
+            modifications.incrementAndGet();
+            if (fromTime != null) {
+                days.asMap().computeIfPresent(new UserDay(userId, date), (key, schedule) ->
+                        schedule.with(appointmentId, toMinute(fromTime), endMinute(fromTime, toTime)));
+            }
+        });
+    }
+
+    /**
+     * Remove a deleted appointment (or skipped occurrence) once the current transaction commits
+     */
+    public void onDeleted(Long userId, Long appointmentId, LocalDate date) {
+        AfterCommit.run(() -> {
+            modifications.incrementAndGet();
+            days.asMap().computeIfPresent(new UserDay(userId, date), (key, schedule) -> schedule.without(appointmentId));
+        });
+    }
+
+    /**
+     * Forget all indexed days of a user once the current transaction commits, e.g. after a bulk change
+     */
+    public void evictUser(Long userId) {
+        AfterCommit.run(() -> {
+            modifications.incrementAndGet();
+            days.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+        });
+    }
+
+    /**
+     * Forget the indexed days of a user within [from, to] once the current transaction commits
+     */
+    public void evictRange(Long userId, LocalDate from, LocalDate to) {
+        AfterCommit.run(() -> {
+            modifications.incrementAndGet();
+            days.asMap().keySet().removeIf(key -> key.userId().equals(userId)
+                    && !key.date().isBefore(from) && !key.date().isAfter(to));
+        });
+    }
+
+    static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private List<ScheduledInterval> loadIntervals(Long userId, LocalDate from, LocalDate to) {
+        List<ScheduledInterval> intervals = new ArrayList<>(appointmentRepository.findOneOffIntervals(userId, from, to));
+        // A row moved meanwhile may show up twice; identical intervals don't change the free time
+        intervals.addAll(archive.intervals(userId, from, to));
+        for (AppointmentView occurrence : occurrenceExpander.expand(userId, from, to)) {
+            if (occurrence.fromTime() != null) {
+                intervals.add(new ScheduledInterval(occurrence.id(), occurrence.fromDate(),
+                        occurrence.fromTime(), occurrence.toTime()));
+            }
+        }
+        return intervals;
+    }
+
+    private Map<LocalDate, DaySchedule> toDaySchedules(List<ScheduledInterval> intervals) {
+        Map<LocalDate, List<ScheduledInterval>> byDate = new HashMap<>();
+        for (ScheduledInterval interval : intervals) {
+            byDate.computeIfAbsent(interval.date(), date -> new ArrayList<>()).add(interval);
+        }
+        Map<LocalDate, DaySchedule> schedules = new HashMap<>();
+        byDate.forEach((date, dayIntervals) -> {
+            long[] ids = new long[dayIntervals.size()];
+            int[] starts = new int[dayIntervals.size()];
+            int[] ends = new int[dayIntervals.size()];
+            for (int i = 0; i < dayIntervals.size(); i++) {
+                ScheduledInterval interval = dayIntervals.get(i);
+                ids[i] = interval.id();
+                starts[i] = toMinute(interval.fromTime());
+                ends[i] = endMinute(interval.fromTime(), interval.toTime());
+            }
+            schedules.put(date, DaySchedule.sorted(ids, starts, ends));
+        });
+        return schedules;
+    }
+
+    private record UserDay(Long userId, LocalDate date) {
+    }
+
+    /**
+     * Immutable intervals of one day sorted by start minute, with a running
+     * maximum of end minutes so "does anything overlap [start, end)" is a single binary search
+     */
+    public static final class DaySchedule {
+        static final DaySchedule EMPTY = new DaySchedule(new long[0], new int[0], new int[0]);
+
+        private final long[] ids;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] prefixMaxEnd;
+
+        private DaySchedule(long[] ids, int[] starts, int[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.prefixMaxEnd = new int[ends.length];
+            int max = 0;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                prefixMaxEnd[i] = max;
+            }
+        }
+
+        static DaySchedule sorted(long[] ids, int[] starts, int[] ends) {
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> starts[a] != starts[b] ? Integer.compare(starts[a], starts[b])
+                    : Long.compare(ids[a], ids[b]));
+            long[] sortedIds = new long[ids.length];
+            int[] sortedStarts = new int[ids.length];
+            int[] sortedEnds = new int[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedIds[i] = ids[order[i]];
+                sortedStarts[i] = starts[order[i]];
+                sortedEnds[i] = ends[order[i]];
+            }
+            return new DaySchedule(sortedIds, sortedStarts, sortedEnds);
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * True if any interval intersects [start, end) (minutes of day)
+         */
+        public boolean overlaps(int start, int end) {
+            int candidates = firstStartAtOrAfter(end);
+            return candidates > 0 && prefixMaxEnd[candidates - 1] > start;
+        }
+
+        /**
+         * Gaps of at least minLength minutes between windowStart and windowEnd, as [start, end) pairs
+         */
+        public List<int[]> freeWindows(int windowStart, int windowEnd, int minLength) {
+            List<int[]> windows = new ArrayList<>();
+            int cursor = windowStart;
+            for (int i = 0; i < starts.length && starts[i] < windowEnd; i++) {
+                if (starts[i] - cursor >= minLength) {
+                    windows.add(new int[] { cursor, starts[i] });
+                }
+                cursor = Math.max(cursor, ends[i]);
+            }
+            if (windowEnd - cursor >= minLength) {
+                windows.add(new int[] { cursor, windowEnd });
+            }
+            return windows;
+        }
+
+        DaySchedule with(long id, int start, int end) {
+            int position = firstStartAtOrAfter(start);
+            int length = ids.length;
+            long[] newIds = new long[length + 1];
+            int[] newStarts = new int[length + 1];
+            int[] newEnds = new int[length + 1];
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(starts, 0, newStarts, 0, position);
+            System.arraycopy(ends, 0, newEnds, 0, position);
+            newIds[position] = id;
+            newStarts[position] = start;
+            newEnds[position] = end;
+            System.arraycopy(ids, position, newIds, position + 1, length - position);
+            System.arraycopy(starts, position, newStarts, position + 1, length - position);
+            System.arraycopy(ends, position, newEnds, position + 1, length - position);
+            return new DaySchedule(newIds, newStarts, newEnds);
+        }
+
+        DaySchedule without(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    long[] newIds = new long[ids.length - 1];
+                    int[] newStarts = new int[ids.length - 1];
+                    int[] newEnds = new int[ids.length - 1];
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(starts, 0, newStarts, 0, i);
+                    System.arraycopy(ends, 0, newEnds, 0, i);
+                    System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+                    System.arraycopy(starts, i + 1, newStarts, i, ids.length - i - 1);
+                    System.arraycopy(ends, i + 1, newEnds, i, ids.length - i - 1);
+                    return new DaySchedule(newIds, newStarts, newEnds);
+                }
+            }
+            return this;
+        }
+
+        private int firstStartAtOrAfter(int minute) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < minute) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.ausganslage.ausgangslageBackend.service;
+
+import com.ausganslage.ausgangslageBackend.dto.SearchDocument;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-process inverted index over name, description, genre and notes, one per user.
+ * A user's index is built with one query on their first search; afterwards write paths
+ * only mark changed appointment ids, which are re-read in one query before the next search.
+ * Ranking is BM25 with field weights; all query terms must match, the last one as a prefix.
+ */
+@Component
+public class SearchIndex {
+    static final int MAX_QUERY_TERMS = 16;
+    private static final int MAX_DIRTY_BEFORE_REBUILD = 10_000;
+    private static final int NAME_WEIGHT = 3;
+    private static final int GENRE_WEIGHT = 2;
+    private static final int TEXT_WEIGHT = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchive archive;
+    private final Cache<Long, UserIndex> indexes;
+
+    public SearchIndex(AppointmentRepository appointmentRepository, AppointmentArchive archive,
+            @Value("${app.search.max-indexed-appointments:500000}") long maxIndexedAppointments,
+            @Value("${app.search.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.appointmentRepository = appointmentRepository;
+        this.archive = archive;
+        // Weight is the document count, refreshed whenever an index is (re)built
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxIndexedAppointments)
+                .<Long, UserIndex>weigher((userId, index) -> index.size() + 1)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    /**
+     * Ranked matches for a query, as appointment ids with scores, best first
+     *
+     * @return the requested page of matches and the total number of matches
+     */
+    public Result search(Long userId, String query, int offset, int limit) {
+        List<String> terms = tokens(query);
+        if (terms.isEmpty()) {
+            return new Result(new long[0], new double[0], 0);
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        UserIndex index = indexes.get(userId, id -> new UserIndex());
+        boolean built = index.prepare(userId, appointmentRepository, archive);
+        if (built) {
+            // Re-put so the cache weighs the built index by its document count
+            indexes.asMap().replace(userId, index, index);
+        }
+        return index.search(terms, offset, limit);
+    }
+
+    /**
+     * An appointment was created, edited or deleted; applied after the surrounding transaction commits
+     */
+    public void onChanged(Long userId, Long appointmentId) {
+        AfterCommit.run(() -> {
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null && !index.markDirty(appointmentId)) {
+                indexes.invalidate(userId);
+            }
+        });
+    }
+
+    /**
+     * Drop a user's index after changes whose ids are unknown (bulk deletes, imports)
+     */
+    public void evictUser(Long userId) {
+        AfterCommit.run(() -> indexes.invalidate(userId));
+    }
+
+    /**
+     * Lower-cased, accent-folded words of a text
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replace("ß", "ss");
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Matching appointment ids and scores for one page, best first
+     */
+    public record Result(long[] ids, double[] scores, int total) {
+    }
+
+    /**
+     * Postings of one term: appointment ids with their weighted term frequencies
+     */
+    private static final class Posting {
+        private long[] ids = new long[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(long id, int frequency) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Terms and length of one indexed appointment, kept to remove its postings on change
+     */
+    private record IndexedDocument(String[] terms, int length) {
+    }
+
+    private static final class UserIndex {
+        private final TreeMap<String, Posting> postings = new TreeMap<>();
+        private final Map<Long, IndexedDocument> documents = new HashMap<>();
+        private final Set<Long> dirty = new HashSet<>();
+        private long totalLength;
+        private boolean built;
+
+        synchronized int size() {
+            return documents.size();
+        }
+
+        /**
+         * @return false if too many changes piled up and the index should be dropped instead
+         */
+        synchronized boolean markDirty(Long appointmentId) {
+            if (!built) {
+                // Not built yet: the build query will see the change
+                return true;
+            }
+            dirty.add(appointmentId);
+            return dirty.size() <= MAX_DIRTY_BEFORE_REBUILD;
+        }
+
+        /**
+         * Build on first use, then re-read changed documents
+         *
+         * @return true if the index was built by this call
+         */
+        synchronized boolean prepare(Long userId, AppointmentRepository appointmentRepository,
+                AppointmentArchive archive) {
+            if (!built) {
+                appointmentRepository.findSearchDocumentsByUserId(userId).forEach(this::add);
+                // A document moved to the archive in between is already indexed
+                archive.searchDocuments(userId).forEach(this::addIfAbsent);
+                built = true;
+                return true;
+            }
+            if (!dirty.isEmpty()) {
+                List<Long> changed = new ArrayList<>(dirty);
+                dirty.clear();
+                changed.forEach(this::remove);
+                appointmentRepository.findSearchDocumentsByIdIn(changed).forEach(this::add);
+                archive.searchDocumentsByIds(changed).forEach(this::addIfAbsent);
+            }
+            return false;
+        }
+
+        private void add(SearchDocument document) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            int length = addTerms(frequencies, document.name(), NAME_WEIGHT)
+                    + addTerms(frequencies, document.genre(), GENRE_WEIGHT)
+                    + addTerms(frequencies, document.description(), TEXT_WEIGHT)
+                    + addTerms(frequencies, document.notes(), TEXT_WEIGHT);
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new Posting()).add(document.id(), frequency));
+            documents.put(document.id(), new IndexedDocument(frequencies.keySet().toArray(String[]::new), length));
+            totalLength += length;
+        }
+
+        private void addIfAbsent(SearchDocument document) {
+            if (!documents.containsKey(document.id())) {
+                add(document);
+            }
+        }
+
+        private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+            List<String> terms = tokens(text);
+            for (String term : terms) {
+                frequencies.merge(term, weight, Integer::sum);
+            }
+            return terms.size() * weight;
+        }
+
+        private void remove(Long appointmentId) {
+            IndexedDocument document = documents.remove(appointmentId);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms()) {
+                Posting posting = postings.get(term);
+                posting.remove(appointmentId);
+                if (posting.size == 0) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= document.length();
+        }
+
+        synchronized Result search(List<String> terms, int offset, int limit) {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return new Result(new long[0], new double[0], 0);
+            }
+            double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+
+            // Each document must match every term, the last one by prefix. Rarest terms go
+            // first so the candidate set starts small and later terms only score candidates.
+            List<Map<String, Posting>> matches = new ArrayList<>();
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                matches.add(t == terms.size() - 1 ? prefixMatches(term) : exactMatch(term));
+            }
+            matches.sort(Comparator.comparingLong(UserIndex::postingCount));
+
+            Map<Long, Double> scores = null;
+            for (Map<String, Posting> match : matches) {
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Posting posting : match.values()) {
+                    double idf = Math.log(1 + (documentCount - posting.size + 0.5) / (posting.size + 0.5));
+                    for (int i = 0; i < posting.size; i++) {
+                        long id = posting.ids[i];
+                        if (scores != null && !scores.containsKey(id)) {
+                            continue;
+                        }
+                        double frequency = posting.frequencies[i];
+                        double norm = 1 - B + B * documents.get(id).length() / averageLength;
+                        termScores.merge(id, idf * frequency * (K1 + 1) / (frequency + K1 * norm), Double::sum);
+                    }
+                }
+                if (scores != null) {
+                    Map<Long, Double> previous = scores;
+                    termScores.replaceAll((id, score) -> score + previous.get(id));
+                }
+                scores = termScores;
+                if (scores.isEmpty()) {
+                    return new Result(new long[0], new double[0], 0);
+                }
+            }
+            return page(scores, offset, limit);
+        }
+
+        private static long postingCount(Map<String, Posting> match) {
+            long count = 0;
+            for (Posting posting : match.values()) {
+                count += posting.size;
+            }
+            return count;
+        }
+
+        private Map<String, Posting> exactMatch(String term) {
+            Posting posting = postings.get(term);
+            return posting != null ? Map.of(term, posting) : Map.of();
+        }
+
+        private SortedMap<String, Posting> prefixMatches(String prefix) {
+            return postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        }
+
+        /**
+         * Top offset+limit by score (ties by id) with a bounded heap instead of sorting all matches
+         */
+        private static Result page(Map<Long, Double> scores, int offset, int limit) {
+            int keep = offset + limit;
+            PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Math.max(1, Math.min(keep, scores.size())),
+                    (a, b) -> a.getValue().equals(b.getValue())
+                            ? Long.compare(b.getKey(), a.getKey())
+                            : Double.compare(a.getValue(), b.getValue()));
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > keep) {
+                    top.poll();
+                }
+            }
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(top);
+            ranked.sort(top.comparator().reversed());
+            int from = Math.min(offset, ranked.size());
+            int to = Math.min(keep, ranked.size());
+            long[] ids = new long[to - from];
+            double[] pageScores = new double[to - from];
+            for (int i = from; i < to; i++) {
+                ids[i - from] = ranked.get(i).getKey();
+                pageScores[i - from] = ranked.get(i).getValue();
+            }
+            return new Result(ids, pageScores, scores.size());
+        }
+    }
+}
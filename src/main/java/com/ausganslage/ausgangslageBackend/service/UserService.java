@@ -1,9 +1,13 @@
 package com.ausganslage.ausgangslageBackend.service;
 
+import com.ausganslage.ausgangslageBackend.exception.AuthenticationUnavailableException;
 import com.ausganslage.ausgangslageBackend.exception.InvalidCredentialsException;
 import com.ausganslage.ausgangslageBackend.exception.UserNotFoundException;
 import com.ausganslage.ausgangslageBackend.model.UserAccount;
 import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.security.PasswordHasher;
+import com.ausganslage.ausgangslageBackend.security.SessionContext;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 /**
@@ -11,21 +15,26 @@ import org.springframework.stereotype.Service;
  * Handles login logic with proper exception handling
  */
 @Service
+@Timed(value = "app.service", percentiles = { 0.5, 0.95, 0.99 })
 public class UserService {
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
     }
 
     /**
      * Authenticates user with username and password
+     * Plaintext or outdated hashes are replaced with a current hash on success.
      * 
-     * @throws InvalidCredentialsException if credentials are invalid
-     * @throws UserNotFoundException       if user doesn't exist
+     * @throws InvalidCredentialsException        if credentials are invalid
+     * @throws UserNotFoundException              if user doesn't exist
+     * @throws AuthenticationUnavailableException if the hashing pool is saturated
      */
     public UserAccount authenticate(String username, String password)
-            throws InvalidCredentialsException, UserNotFoundException {
+            throws InvalidCredentialsException, UserNotFoundException, AuthenticationUnavailableException {
 
         if (username == null || username.trim().isEmpty()) {
             throw new InvalidCredentialsException("Username cannot be empty");
@@ -38,12 +47,17 @@ public class UserService {
             UserAccount user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new UserNotFoundException("User not found: " + username));
 
-            if (!user.getPassword().equals(password)) {
+            PasswordHasher.Verification verification = passwordHasher.verify(password, user.getPassword());
+            if (!verification.matches()) {
                 throw new InvalidCredentialsException("Invalid password for user: " + username);
             }
+            if (verification.rehashed() != null) {
+                user.setPassword(verification.rehashed());
+                userRepository.save(user);
+            }
 
             return user;
-        } catch (UserNotFoundException | InvalidCredentialsException e) {
+        } catch (UserNotFoundException | InvalidCredentialsException | AuthenticationUnavailableException e) {
             throw e;
         } catch (Exception e) {
             throw new InvalidCredentialsException("Authentication failed: " + e.getMessage(), e);
@@ -65,4 +79,25 @@ public class UserService {
             throw new UserNotFoundException("Error retrieving user: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Check that a user exists; free for the user proven by the request's session token
+     */
+    public boolean userExists(Long userId) {
+        return SessionContext.isAuthenticated(userId) || userRepository.existsById(userId);
+    }
+
+    /**
+     * Get a reference for associating entities with a user
+     * A token-authenticated user gets an unloaded proxy, so no users query runs.
+     *
+     * @throws UserNotFoundException if user doesn't exist
+     */
+    public UserAccount getUserReference(Long userId) throws UserNotFoundException {
+        if (SessionContext.isAuthenticated(userId)) {
+            return userRepository.getReferenceById(userId);
+        }
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + userId));
+    }
 }
@@ -0,0 +1,50 @@
+create sequence appointments_seq start with 1 increment by 50;
+
+create table users (
+    id bigint generated by default as identity,
+    password varchar(255) not null,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+create table appointments (
+    from_date date,
+    from_time time(6),
+    recurrence_interval integer,
+    recurrence_until date,
+    to_time time(6),
+    id bigint not null,
+    user_id bigint,
+    notes varchar(4000),
+    description varchar(255),
+    genre varchar(255),
+    name varchar(255),
+    recurrence varchar(16),
+    primary key (id),
+    constraint ck_appointments_recurrence check (recurrence in ('MONTHLY', 'WEEKLY'))
+);
+
+create table recurrence_exclusions (
+    occurrence_date date not null,
+    appointment_id bigint not null,
+    id bigint generated by default as identity,
+    primary key (id),
+    constraint uk_recurrence_exclusions_series_date unique (appointment_id, occurrence_date)
+);
+
+create index idx_appointments_user_date_time_id
+    on appointments (user_id, from_date, from_time, id);
+
+create index idx_appointments_user_recurrence
+    on appointments (user_id, recurrence, from_date);
+
+alter table appointments
+    add constraint fk_appointments_user
+    foreign key (user_id)
+    references users;
+
+alter table recurrence_exclusions
+    add constraint fk_recurrence_exclusions_appointment
+    foreign key (appointment_id)
+    references appointments
+    on delete cascade;
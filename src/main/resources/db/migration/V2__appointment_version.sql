@@ -0,0 +1 @@
+alter table appointments add column version bigint default 0 not null;
@@ -0,0 +1,13 @@
+create table appointment_rollups (
+    bucket_month date not null,
+    appointment_count bigint not null,
+    user_id bigint not null,
+    genre varchar(255) not null,
+    primary key (bucket_month, genre, user_id)
+);
+
+insert into appointment_rollups (user_id, genre, bucket_month, appointment_count)
+select user_id, coalesce(genre, ''), cast(date_trunc('MONTH', from_date) as date), count(*)
+from appointments
+where user_id is not null and from_date is not null
+group by user_id, coalesce(genre, ''), cast(date_trunc('MONTH', from_date) as date);
@@ -0,0 +1,20 @@
+create table appointments_archive (
+    from_date date,
+    from_time time(6),
+    to_time time(6),
+    id bigint not null,
+    user_id bigint,
+    version bigint not null,
+    notes varchar(4000),
+    description varchar(255),
+    genre varchar(255),
+    name varchar(255),
+    primary key (id)
+);
+
+create index idx_appointments_archive_user_date_time_id
+    on appointments_archive (user_id, from_date, from_time, id);
+
+-- Lets the archiver find past one-off appointments without scanning the table
+create index idx_appointments_from_date
+    on appointments (from_date);
@@ -0,0 +1,13 @@
+create table idempotency_keys (
+    status integer,
+    created_at timestamp(6) with time zone not null,
+    user_id bigint not null,
+    fingerprint varchar(64) not null,
+    idempotency_key varchar(255) not null,
+    body varchar(16000),
+    primary key (user_id, idempotency_key)
+);
+
+-- Expired keys are purged by creation time
+create index idx_idempotency_keys_created_at
+    on idempotency_keys (created_at);
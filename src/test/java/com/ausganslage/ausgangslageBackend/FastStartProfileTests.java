@@ -0,0 +1,37 @@
+package com.ausganslage.ausgangslageBackend;
+
+import com.ausganslage.ausgangslageBackend.config.StartupWarmup;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots prod with fast-start (lazy beans and repositories, no JDBC metadata at boot) and waits
+ * for the background warm-up, which must seed the default users and report UP when done
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:faststart;DB_CLOSE_DELAY=-1")
+@ActiveProfiles({ "prod", "fast-start" })
+class FastStartProfileTests {
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void warmUpSeedsAndTurnsReady() throws InterruptedException {
+        for (int i = 0; i < 600 && startupWarmup.health().getStatus() != Status.UP; i++) {
+            Thread.sleep(100);
+        }
+
+        assertThat(startupWarmup.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(userRepository.findByUsername("eliza")).isPresent();
+    }
+}
@@ -0,0 +1,19 @@
+package com.ausganslage.ausgangslageBackend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Boots the prod profile against a throwaway in-memory database: Flyway applies
+ * db/migration and Hibernate validates the result, so entity changes without a
+ * matching migration fail here instead of at deployment
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:prodschema;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("prod")
+class ProdProfileSchemaTests {
+
+    @Test
+    void migrationsMatchEntities() {
+    }
+}
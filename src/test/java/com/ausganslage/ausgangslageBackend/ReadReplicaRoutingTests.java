@@ -0,0 +1,93 @@
+package com.ausganslage.ausgangslageBackend;
+
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.Recurrence;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two separate in-memory databases stand in for a primary and a replica that has not caught up:
+ * reads see the replica until the user writes, then see the primary
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingTests.PRIMARY_URL,
+        "app.datasource.replica.url=" + ReadReplicaRoutingTests.REPLICA_URL,
+        "app.datasource.replica.max-lag=1m" })
+@ActiveProfiles("prod")
+class ReadReplicaRoutingTests {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final LocalDate DATE = LocalDate.of(2031, 5, 20);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @Test
+    void readsUseReplicaUntilTheUserWrites() throws Exception {
+        Long userId = TestData.user(userRepository, "routing").getId();
+        copyUserWithAppointmentToReplica(userId, "replica copy");
+
+        assertThat(appointmentService.getUserAppointmentsInRange(userId, DATE, DATE))
+                .extracting(AppointmentView::name)
+                .containsExactly("replica copy");
+
+        appointmentService.createAppointment(TestData.appointment(null, "primary write", DATE), userId);
+
+        assertThat(appointmentService.getUserAppointmentsInRange(userId, DATE, DATE))
+                .extracting(AppointmentView::name)
+                .containsExactly("primary write");
+    }
+
+    @Test
+    void skippingAnOccurrenceFindsASeriesTheReplicaLacks() throws Exception {
+        Long userId = TestData.user(userRepository, "routing").getId();
+        Appointment series = TestData.appointment(null, "weekly", DATE);
+        series.setRecurrence(Recurrence.WEEKLY);
+        Long seriesId = appointmentService.createAppointment(series, userId).getId();
+
+        assertThat(appointmentService.skipOccurrence(seriesId, DATE.plusWeeks(1))).isTrue();
+        assertThat(appointmentService.getUserAppointmentsInRange(userId, DATE, DATE.plusWeeks(2)))
+                .extracting(AppointmentView::fromDate)
+                .containsExactly(DATE, DATE.plusWeeks(2));
+    }
+
+    private static void copyUserWithAppointmentToReplica(Long userId, String name) throws Exception {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into users (id, username, password) values (?, 'routing', 'routing123')")) {
+                insert.setLong(1, userId);
+                insert.executeUpdate();
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into appointments (id, user_id, name, description, genre, from_date) "
+                            + "values (1000000, ?, ?, 'only on the replica', 'test', ?)")) {
+                insert.setLong(1, userId);
+                insert.setString(2, name);
+                insert.setObject(3, DATE);
+                insert.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ausganslage.ausgangslageBackend;
+
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fixtures shared by the tests. Users get unique names, so tests sharing a context never see
+ * each other's appointments.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    /**
+     * Save a new user named prefix-&lt;uuid&gt; with the (legacy plaintext) password prefix123
+     */
+    public static UserAccount user(UserRepository userRepository, String prefix) {
+        UserAccount user = new UserAccount();
+        user.setUsername(prefix + "-" + UUID.randomUUID());
+        user.setPassword(prefix + "123");
+        return userRepository.save(user);
+    }
+
+    /**
+     * Unsaved one-off appointment of the work genre; user may be null
+     */
+    public static Appointment appointment(UserAccount user, String name, LocalDate date) {
+        Appointment appointment = new Appointment();
+        appointment.setName(name);
+        appointment.setDescription(name);
+        appointment.setGenre("work");
+        appointment.setFromDate(date);
+        appointment.setUser(user);
+        return appointment;
+    }
+
+    /**
+     * Create an appointment through the API and return its id
+     */
+    public static Long create(MockMvc mockMvc, Long userId, String json) throws Exception {
+        String body = mockMvc.perform(post("/api/appointments").param("userId", userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.id")).longValue();
+    }
+}
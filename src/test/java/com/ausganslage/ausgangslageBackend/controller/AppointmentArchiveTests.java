@@ -0,0 +1,134 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.Recurrence;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.ArchivedAppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.service.AppointmentArchive;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Archive: past one-off appointments move to appointments_archive in batches, series stay, and
+ * reads merge both tables in calendar order with every appointment listed once
+ */
+@SpringBootTest(properties = {
+        "app.archive.batch-size=2" })
+@AutoConfigureMockMvc
+class AppointmentArchiveTests {
+    private static final LocalDate PAST = LocalDate.now().minusYears(3);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archiveRepository;
+
+    @Autowired
+    private AppointmentArchive archive;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UserAccount user;
+
+    @BeforeEach
+    void createUser() {
+        user = TestData.user(userRepository, "archive");
+    }
+
+    @Test
+    void pastOneOffsMoveAndStayReadable() throws Exception {
+        Long first = save("Archived", PAST, null);
+        Long second = save("Archived", PAST.plusDays(1), null);
+        Long third = save("Archived", PAST.plusDays(2), null);
+        Long series = save("Weekly", PAST, Recurrence.WEEKLY);
+        Long recent = save("Recent", LocalDate.now().plusDays(1), null);
+
+        assertThat(archive.archivePastAppointments()).isEqualTo(3);
+
+        assertThat(appointmentRepository.findViewsByUserId(user.getId()))
+                .extracting(AppointmentView::id).containsExactlyInAnyOrder(series, recent);
+        assertThat(archiveRepository.findViewsByUserId(user.getId()))
+                .extracting(AppointmentView::id).containsExactlyInAnyOrder(first, second, third);
+
+        assertThat(ids(get("/api/appointments/user/{userId}", user.getId())))
+                .containsExactly(first, series, second, third, recent);
+        assertThat(ids(get("/api/appointments/user/{userId}/date/{date}", user.getId(), PAST.plusDays(1))))
+                .containsExactly(second);
+        mockMvc.perform(get("/api/appointments/user/{userId}/search", user.getId()).param("q", "archived"))
+                .andExpect(jsonPath("$.total").value(3));
+        mockMvc.perform(get("/api/appointments/user/{userId}/stats", user.getId())
+                        .param("from", PAST.toString())
+                        .param("to", PAST.plusDays(2).toString())
+                        .param("bucket", "day"))
+                .andExpect(jsonPath("$.length()").value(3));
+
+        mockMvc.perform(delete("/api/appointments/{appointmentId}", second))
+                .andExpect(jsonPath("$.deleted").value(1));
+        assertThat(archiveRepository.findViewsByUserId(user.getId()))
+                .extracting(AppointmentView::id).containsExactlyInAnyOrder(first, third);
+    }
+
+    @Test
+    void rowMovedDuringAReadIsListedOnce() throws Exception {
+        Long archived = save("Archived", PAST, null);
+        archive.archivePastAppointments();
+        // Copied but not yet deleted, as seen by a read between the two statements of a batch
+        Long moving = save("Moving", PAST.plusDays(1), null);
+        transactionTemplate.executeWithoutResult(status -> archiveRepository.copyFromAppointments(List.of(moving)));
+
+        assertThat(ids(get("/api/appointments/user/{userId}", user.getId())))
+                .containsExactly(archived, moving);
+        assertThat(ids(get("/api/appointments/user/{userId}/range", user.getId())
+                        .param("from", PAST.toString())
+                        .param("to", PAST.plusDays(1).toString())))
+                .containsExactly(archived, moving);
+        assertThat(ids(get("/api/appointments/user/{userId}/page", user.getId()).param("limit", "10"), "$.items[*].id"))
+                .containsExactly(archived, moving);
+    }
+
+    private List<Long> ids(RequestBuilder request) throws Exception {
+        return ids(request, "$[*].id");
+    }
+
+    private List<Long> ids(RequestBuilder request, String path) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Number> ids = JsonPath.read(body, path);
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private Long save(String name, LocalDate date, Recurrence recurrence) {
+        Appointment appointment = TestData.appointment(user, name, date);
+        appointment.setRecurrence(recurrence);
+        return appointmentRepository.save(appointment).getId();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calendar cache: repeated reads are served without statements, and creating or deleting an
+ * appointment evicts the user's list and the affected day
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class AppointmentCacheTests {
+    private static final String DATE = "2033-02-10";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestData.user(userRepository, "cache").getId();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() throws Exception {
+        create("Standup");
+        readUser();
+        readDay();
+        Statistics statistics = clearedStatistics();
+
+        readUser().andExpect(jsonPath("$.length()").value(1));
+        readDay().andExpect(jsonPath("$.length()").value(1));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void createEvictsUserListAndDay() throws Exception {
+        Long first = create("Standup");
+        readUser().andExpect(jsonPath("$[*].id").value(hasItem(first.intValue())));
+        readDay().andExpect(jsonPath("$.length()").value(1));
+
+        Long second = create("Review");
+
+        readUser().andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].id").value(hasItem(second.intValue())));
+        readDay().andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void deleteEvictsUserListAndDay() throws Exception {
+        Long kept = create("Standup");
+        Long deleted = create("Review");
+        readUser().andExpect(jsonPath("$.length()").value(2));
+        readDay().andExpect(jsonPath("$.length()").value(2));
+
+        mockMvc.perform(delete("/api/appointments/{appointmentId}", deleted))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+
+        readUser().andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[*].id").value(not(hasItem(deleted.intValue()))));
+        readDay().andExpect(jsonPath("$[0].id").value(kept));
+    }
+
+    private Long create(String name) throws Exception {
+        return TestData.create(mockMvc, userId, """
+                {"name":"%s","description":"Cache","genre":"work","fromDate":"%s"}"""
+                .formatted(name, DATE));
+    }
+
+    private ResultActions readUser() throws Exception {
+        return mockMvc.perform(get("/api/appointments/user/{userId}", userId)).andExpect(status().isOk());
+    }
+
+    private ResultActions readDay() throws Exception {
+        return mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE))
+                .andExpect(status().isOk());
+    }
+
+    private Statistics clearedStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Batch and ranged deletes: they report how many appointments they removed, and afterwards the
+ * cached list, the monthly rollup and the search index no longer see the deleted appointments
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentDeleteTests {
+    private static final LocalDate DATE = LocalDate.of(2035, 4, 9);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestData.user(userRepository, "delete").getId();
+    }
+
+    @Test
+    void batchDeleteCountsOnlyExistingAppointments() throws Exception {
+        Long first = create("Dentist", DATE, null);
+        Long second = create("Dentist", DATE.plusDays(1), null);
+        Long kept = create("Dentist", DATE.plusDays(2), null);
+        warmUp();
+
+        mockMvc.perform(post("/api/appointments/batch-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + first + "," + second + "," + Long.MAX_VALUE + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertRemaining(1).andExpect(jsonPath("$[0].id").value(kept));
+        search().andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.hits[0].appointment.id").value(kept));
+        stats().andExpect(jsonPath("$[0].count").value(1));
+    }
+
+    @Test
+    void rangeDeleteRemovesOneOffsInRangeAndKeepsSeries() throws Exception {
+        create("Dentist", DATE, null);
+        create("Dentist", DATE.plusDays(1), null);
+        Long later = create("Dentist", DATE.plusDays(5), null);
+        Long series = create("Dentist", DATE, "WEEKLY");
+        warmUp();
+
+        mockMvc.perform(delete("/api/appointments/user/{userId}/range", userId)
+                        .param("from", DATE.toString())
+                        .param("to", DATE.plusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertRemaining(2).andExpect(jsonPath("$[*].id")
+                .value(containsInAnyOrder(later.intValue(), series.intValue())));
+        search().andExpect(jsonPath("$.total").value(2));
+        stats().andExpect(jsonPath("$[0].count").value(2));
+    }
+
+    @Test
+    void dateDeleteRemovesThatDayOnly() throws Exception {
+        create("Dentist", DATE, null);
+        create("Dentist", DATE, null);
+        Long kept = create("Dentist", DATE.plusDays(1), null);
+        warmUp();
+
+        mockMvc.perform(delete("/api/appointments/user/{userId}/date/{date}", userId, DATE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+        mockMvc.perform(delete("/api/appointments/user/{userId}/date/{date}", userId, DATE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(0));
+
+        assertRemaining(1).andExpect(jsonPath("$[0].id").value(kept));
+        mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE))
+                .andExpect(jsonPath("$.length()").value(0));
+        search().andExpect(jsonPath("$.total").value(1));
+        stats().andExpect(jsonPath("$[0].count").value(1));
+    }
+
+    @Test
+    void emptyBatchIsRejected() throws Exception {
+        mockMvc.perform(post("/api/appointments/batch-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_APPOINTMENT_DATA"));
+    }
+
+    /**
+     * Fill the calendar cache, the day cache and the search index before deleting
+     */
+    private void warmUp() throws Exception {
+        mockMvc.perform(get("/api/appointments/user/{userId}", userId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE)).andExpect(status().isOk());
+        search().andExpect(status().isOk());
+        stats().andExpect(status().isOk());
+    }
+
+    private ResultActions assertRemaining(int count) throws Exception {
+        return mockMvc.perform(get("/api/appointments/user/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(count));
+    }
+
+    private ResultActions search() throws Exception {
+        return mockMvc.perform(get("/api/appointments/user/{userId}/search", userId).param("q", "dentist"));
+    }
+
+    private ResultActions stats() throws Exception {
+        return mockMvc.perform(get("/api/appointments/user/{userId}/stats", userId))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].genre").value("health"));
+    }
+
+    private Long create(String name, LocalDate date, String recurrence) throws Exception {
+        String series = recurrence != null ? ",\"recurrence\":\"" + recurrence + "\"" : "";
+        return TestData.create(mockMvc, userId, """
+                {"name":"%s","description":"Check-up","genre":"health","fromDate":"%s"%s}"""
+                .formatted(name, date, series));
+    }
+}
@@ -0,0 +1,133 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Export: the whole history is streamed in calendar order as NDJSON or CSV, and errors found
+ * before streaming starts are answered as JSON
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentExportTests {
+    private static final LocalDate DATE = LocalDate.of(2034, 9, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UserAccount user;
+
+    @BeforeEach
+    void createUser() {
+        user = TestData.user(userRepository, "export");
+    }
+
+    @Test
+    void ndjsonHasOneLinePerAppointmentInCalendarOrder() throws Exception {
+        List<Long> expected = new ArrayList<>();
+        expected.add(save("First", DATE, null, null));
+        expected.add(save("Second", DATE, LocalTime.of(9, 0), null));
+        expected.add(save("Third", DATE.plusDays(1), LocalTime.of(8, 0), null));
+        // Saved last, listed first
+        expected.add(0, save("Earliest", DATE.minusDays(3), LocalTime.of(12, 0), null));
+
+        MockHttpServletResponse response = export("ndjson");
+
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION))
+                .isEqualTo("attachment; filename=\"appointments-" + user.getId() + ".ndjson\"");
+        String[] lines = response.getContentAsString().split("\n");
+        assertThat(lines).hasSize(expected.size());
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode appointment = objectMapper.readTree(line);
+            assertThat(appointment.get("userId").asLong()).isEqualTo(user.getId());
+            ids.add(appointment.get("id").asLong());
+        }
+        assertThat(ids).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void csvQuotesFieldsWithSeparators() throws Exception {
+        Long id = save("Lunch, with \"Sam\"", DATE, LocalTime.of(12, 30), "line one\nline two");
+
+        String csv = export("csv").getContentAsString();
+
+        assertThat(csv).startsWith("id,name,description,fromDate,fromTime,toTime,genre,notes,"
+                + "recurrence,recurrenceInterval,recurrenceUntil\r\n");
+        String name = "\"Lunch, with \"\"Sam\"\"\"";
+        assertThat(csv).endsWith(id + "," + name + "," + name + "," + DATE
+                + ",12:30,,work,\"line one\nline two\",,,\r\n");
+    }
+
+    @Test
+    void emptyHistoryExportsNoRows() throws Exception {
+        assertThat(export("ndjson").getContentAsString()).isEqualTo("\n");
+        assertThat(export("csv").getContentAsString()).doesNotContain(DATE.toString()).endsWith("\r\n");
+    }
+
+    @Test
+    void unsupportedFormatAndUnknownUserAreJsonErrors() throws Exception {
+        // Error bodies are written like exports, after the handler returns
+        mockMvc.perform(asyncDispatch(start(user.getId(), "xml")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_APPOINTMENT_DATA"));
+        mockMvc.perform(asyncDispatch(start(Long.MAX_VALUE, "ndjson")))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode").value("USER_NOT_FOUND"));
+    }
+
+    private MockHttpServletResponse export(String format) throws Exception {
+        return mockMvc.perform(asyncDispatch(start(user.getId(), format)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private MvcResult start(Long userId, String format) throws Exception {
+        return mockMvc.perform(get("/api/appointments/user/{userId}/export", userId).param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private Long save(String name, LocalDate date, LocalTime time, String notes) {
+        Appointment appointment = TestData.appointment(user, name, date);
+        appointment.setFromTime(time);
+        appointment.setNotes(notes);
+        return appointmentRepository.save(appointment).getId();
+    }
+}
@@ -0,0 +1,120 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk import: JSON arrays and NDJSON are read alike, bad rows are reported by position while
+ * the rest of their batch is inserted, and the error list stops at its cap
+ */
+@SpringBootTest(properties = "app.import.batch-size=3")
+@AutoConfigureMockMvc
+class AppointmentImportTests {
+    private static final LocalDate DATE = LocalDate.of(2039, 4, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestData.user(userRepository, "import").getId();
+    }
+
+    @Test
+    void jsonArrayAndNdjsonImportTheSameRows() throws Exception {
+        importRows(MediaType.APPLICATION_JSON, "[" + row("First") + "," + row("Second") + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+        importRows(MediaType.APPLICATION_NDJSON, row("Third") + "\n" + row("Fourth") + "\n")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+
+        assertThat(appointmentService.getUserAppointments(userId)).hasSize(4);
+    }
+
+    @Test
+    void badRowsAreReportedWhileTheirBatchLands() throws Exception {
+        String rows = String.join("\n",
+                row("First"),
+                row(""),
+                row("Third"),
+                row("Fourth").replace(DATE.toString(), "not-a-date"),
+                row("Fifth"),
+                row("Sixth"));
+
+        importRows(MediaType.APPLICATION_NDJSON, rows)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(4))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors.length()").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].errorCode").value("INVALID_APPOINTMENT_DATA"))
+                .andExpect(jsonPath("$.errors[1].row").value(4))
+                .andExpect(jsonPath("$.errors[1].errorCode").value("INVALID_APPOINTMENT_DATA"))
+                .andExpect(jsonPath("$.errorsTruncated").value(false));
+
+        assertThat(appointmentService.getUserAppointments(userId)).hasSize(4);
+    }
+
+    @Test
+    void malformedJsonIsBadRequest() throws Exception {
+        importRows(MediaType.APPLICATION_JSON, "not json")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_APPOINTMENT_DATA"));
+
+        assertThat(appointmentService.getUserAppointments(userId)).isEmpty();
+    }
+
+    @Test
+    void errorListIsTruncatedAtItsCap() throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < 1002; i++) {
+            rows.append(row("")).append('\n');
+        }
+        rows.append(row("Valid")).append('\n');
+
+        importRows(MediaType.APPLICATION_NDJSON, rows.toString())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1002))
+                .andExpect(jsonPath("$.errors.length()").value(1000))
+                .andExpect(jsonPath("$.errorsTruncated").value(true));
+    }
+
+    private ResultActions importRows(MediaType contentType, String body) throws Exception {
+        return mockMvc.perform(post("/api/appointments/import").param("userId", userId.toString())
+                .contentType(contentType)
+                .content(body));
+    }
+
+    private static String row(String name) {
+        return """
+                {"name":"%s","description":"Imported","genre":"work","fromDate":"%s"}""".formatted(name, DATE);
+    }
+}
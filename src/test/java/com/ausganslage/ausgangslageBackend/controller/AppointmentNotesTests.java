@@ -0,0 +1,144 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional notes updates: stale versions get 409 with the current version, and a text
+ * delta is applied with a single UPDATE
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.ausganslage.ausgangslageBackend.controller.AppointmentNotesTests$RecordingInspector" })
+@AutoConfigureMockMvc
+class AppointmentNotesTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    private Long userId;
+    private Long appointmentId;
+    private Long version;
+
+    @BeforeEach
+    void createAppointment() throws Exception {
+        userId = TestData.user(userRepository, "notes").getId();
+        Appointment appointment = TestData.appointment(null, "Dentist", LocalDate.of(2031, 5, 2));
+        appointment.setNotes("hello");
+        Appointment created = appointmentService.createAppointment(appointment, userId);
+        appointmentId = created.getId();
+        version = created.getVersion();
+    }
+
+    @Test
+    void staleIfMatchIsConflictWithCurrentVersion() throws Exception {
+        mockMvc.perform(put("/api/appointments/{id}/notes", appointmentId)
+                        .header(HttpHeaders.IF_MATCH, "\"" + (version + 7) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"notes\":\"overwritten\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + version + "\""))
+                .andExpect(jsonPath("$.errorCode").value("VERSION_CONFLICT"))
+                .andExpect(jsonPath("$.currentVersion").value(version));
+        assertThat(notes()).isEqualTo("hello");
+    }
+
+    @Test
+    void staleBaseVersionIsConflictWithCurrentVersion() throws Exception {
+        mockMvc.perform(put("/api/appointments/{id}/notes", appointmentId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"notes\":\"hello again\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/appointments/{id}/notes", appointmentId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(patchBody(version, 5, 0, "!")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errorCode").value("VERSION_CONFLICT"))
+                .andExpect(jsonPath("$.currentVersion").value(version + 1));
+        assertThat(notes()).isEqualTo("hello again");
+    }
+
+    @Test
+    void spliceOutsideTheNotesIsBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/appointments/{id}/notes", appointmentId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(patchBody(version, 3, 5, "")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_APPOINTMENT_DATA"));
+        assertThat(notes()).isEqualTo("hello");
+    }
+
+    @Test
+    void patchIsOneUpdateStatement() throws Exception {
+        RecordingInspector.STATEMENTS.clear();
+
+        mockMvc.perform(patch("/api/appointments/{id}/notes", appointmentId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(patchBody(version, 5, 0, ", world")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""))
+                .andExpect(jsonPath("$.version").value(version + 1));
+
+        List<String> updates = RecordingInspector.STATEMENTS.stream()
+                .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("update"))
+                .toList();
+        assertThat(updates).hasSize(1);
+        assertThat(notes()).isEqualTo("hello, world");
+    }
+
+    private String notes() throws Exception {
+        return appointmentService.getUserAppointments(userId).stream()
+                .filter(view -> view.id().equals(appointmentId))
+                .map(AppointmentView::notes)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String patchBody(Long baseVersion, int offset, int deleteCount, String text) {
+        return "{\"baseVersion\":" + baseVersion + ",\"offset\":" + offset + ",\"deleteCount\":" + deleteCount
+                + ",\"text\":\"" + text + "\"}";
+    }
+
+    /**
+     * Records the SQL of every statement Hibernate prepares
+     */
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentCursor;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pagination: walking the cursors returns every appointment of the range exactly once,
+ * in (fromDate, fromTime nulls first, id) order, also where dates and times repeat
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentPaginationTests {
+    private static final LocalDate DATE = LocalDate.of(2032, 6, 7);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private UserAccount user;
+
+    @BeforeEach
+    void createUser() {
+        user = TestData.user(userRepository, "pagination");
+    }
+
+    @Test
+    void pagesAcrossEqualDatesAndTimesReturnEveryAppointmentOnce() throws Exception {
+        List<Long> expected = new ArrayList<>();
+        // Saved in id order within each (date, time) group, so the expected order is the insertion order
+        for (int i = 0; i < 3; i++) {
+            expected.add(save(DATE, null));
+        }
+        for (int i = 0; i < 4; i++) {
+            expected.add(save(DATE, LocalTime.of(9, 0)));
+        }
+        expected.add(save(DATE, LocalTime.of(10, 0)));
+        for (int i = 0; i < 3; i++) {
+            expected.add(save(DATE.plusDays(1), null));
+        }
+
+        assertThat(walk(this::page, 2)).containsExactlyElementsOf(expected);
+        assertThat(walk(this::page, 3)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void dateBoundsLimitThePages() throws Exception {
+        save(DATE.minusDays(1), LocalTime.of(9, 0));
+        Long first = save(DATE, null);
+        Long second = save(DATE, LocalTime.of(8, 0));
+        Long third = save(DATE.plusDays(1), LocalTime.of(8, 0));
+        save(DATE.plusDays(2), null);
+
+        List<Long> ids = walk(() -> page().param("from", DATE.toString()).param("to", DATE.plusDays(1).toString()), 2);
+
+        assertThat(ids).containsExactly(first, second, third);
+    }
+
+    @Test
+    void cursorRoundTripsWithAndWithoutTime() throws Exception {
+        AppointmentCursor timed = new AppointmentCursor(DATE, LocalTime.of(9, 30), 42L);
+        AppointmentCursor untimed = new AppointmentCursor(DATE, null, 43L);
+
+        assertThat(AppointmentCursor.decode(timed.encode())).isEqualTo(timed);
+        assertThat(AppointmentCursor.decode(untimed.encode())).isEqualTo(untimed);
+    }
+
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        mockMvc.perform(page().param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_APPOINTMENT_DATA"));
+    }
+
+    private MockHttpServletRequestBuilder page() {
+        return get("/api/appointments/user/{userId}/page", user.getId());
+    }
+
+    private List<Long> walk(Supplier<MockHttpServletRequestBuilder> request, int limit) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder next = request.get().param("limit", String.valueOf(limit));
+            if (cursor != null) {
+                next = next.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(next)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            List<Number> pageIds = JsonPath.read(body, "$.items[*].id");
+            assertThat(pageIds).hasSizeLessThanOrEqualTo(limit);
+            pageIds.forEach(id -> ids.add(id.longValue()));
+            cursor = JsonPath.read(body, "$.nextCursor");
+        } while (cursor != null);
+        return ids;
+    }
+
+    private Long save(LocalDate date, LocalTime time) {
+        Appointment appointment = TestData.appointment(user, "Page " + date + " " + time, date);
+        appointment.setFromTime(time);
+        return appointmentRepository.save(appointment).getId();
+    }
+}
@@ -0,0 +1,152 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentRows;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the appointment read endpoints against N+1 regressions:
+ * each request must run a bounded number of statements and never load UserAccount
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class AppointmentReadPathTests {
+    private static final LocalDate DATE = LocalDate.of(2030, 3, 14);
+    private static final int MAX_STATEMENTS_PER_REQUEST = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+
+    @BeforeEach
+    void seedAppointments() {
+        UserAccount user = TestData.user(userRepository, "readpath");
+        userId = user.getId();
+        for (int i = 0; i < 20; i++) {
+            Appointment appointment = TestData.appointment(user, "Appointment " + i, DATE.plusDays(i % 2));
+            appointment.setFromTime(LocalTime.of(8 + i % 10, 0));
+            appointmentRepository.save(appointment);
+        }
+    }
+
+    @Test
+    void userAppointmentsUseBoundedStatementsAndNoUserLoads() throws Exception {
+        Statistics statistics = clearedStatistics();
+
+        mockMvc.perform(get("/api/appointments/user/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(20))
+                .andExpect(jsonPath("$[0].userId").value(userId))
+                .andExpect(jsonPath("$[0].user").doesNotExist());
+
+        assertReadPathStatistics(statistics);
+    }
+
+    @Test
+    void userAppointmentsByDateUseBoundedStatementsAndNoUserLoads() throws Exception {
+        Statistics statistics = clearedStatistics();
+
+        mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[0].user").doesNotExist());
+
+        assertReadPathStatistics(statistics);
+    }
+
+    @Test
+    void appointmentPageUsesBoundedStatementsAndNoUserLoads() throws Exception {
+        Statistics statistics = clearedStatistics();
+
+        mockMvc.perform(get("/api/appointments/user/{userId}/page", userId).param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(5))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+
+        assertReadPathStatistics(statistics);
+    }
+
+    @Test
+    void matchingETagAnswersNotModifiedWithoutStatements() throws Exception {
+        String etag = mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Statistics statistics = clearedStatistics();
+
+        mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void columnarListHasItsOwnETag() throws Exception {
+        String jsonEtag = mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String rowsEtag = mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE)
+                        .header(HttpHeaders.ACCEPT, AppointmentRows.JSON_MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, AppointmentRows.JSON_MEDIA_TYPE))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andExpect(jsonPath("$.columns[0]").value("id"))
+                .andExpect(jsonPath("$.rows.length()").value(10))
+                .andExpect(jsonPath("$.rows[0][8]").value(userId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(rowsEtag).isNotEqualTo(jsonEtag);
+
+        mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE)
+                        .header(HttpHeaders.IF_NONE_MATCH, rowsEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/appointments/user/{userId}/date/{date}", userId, DATE)
+                        .header(HttpHeaders.ACCEPT, AppointmentRows.JSON_MEDIA_TYPE)
+                        .header(HttpHeaders.IF_NONE_MATCH, rowsEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    private Statistics clearedStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private void assertReadPathStatistics(Statistics statistics) {
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_REQUEST);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+}
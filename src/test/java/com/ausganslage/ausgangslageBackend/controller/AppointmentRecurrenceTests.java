@@ -0,0 +1,123 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Series expansion: monthly series keep their day of month (or the month's last day),
+ * intervals and the inclusive end date bound the occurrences, and skipped dates are left out
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentRecurrenceTests {
+    private static final LocalDate DATE = LocalDate.of(2040, 1, 2);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestData.user(userRepository, "recurrence").getId();
+    }
+
+    @Test
+    void monthlySeriesFromLateDaysFallOnTheLastDayOfShortMonths() throws Exception {
+        // Bounded series in separate years, so each window sees one of them
+        create(LocalDate.of(2040, 1, 31), "MONTHLY", null, LocalDate.of(2040, 12, 31));
+        create(LocalDate.of(2041, 1, 29), "MONTHLY", null, LocalDate.of(2041, 12, 31));
+        create(LocalDate.of(2042, 1, 30), "MONTHLY", null, LocalDate.of(2042, 12, 31));
+
+        assertThat(dates(LocalDate.of(2040, 1, 1), LocalDate.of(2040, 5, 31))).containsExactly(
+                "2040-01-31", "2040-02-29", "2040-03-31", "2040-04-30", "2040-05-31");
+        // A window opening after the start lands on the same dates
+        assertThat(dates(LocalDate.of(2040, 3, 1), LocalDate.of(2040, 4, 30))).containsExactly(
+                "2040-03-31", "2040-04-30");
+        assertThat(dates(LocalDate.of(2041, 1, 1), LocalDate.of(2041, 3, 31))).containsExactly(
+                "2041-01-29", "2041-02-28", "2041-03-29");
+        assertThat(dates(LocalDate.of(2042, 2, 1), LocalDate.of(2042, 4, 30))).containsExactly(
+                "2042-02-28", "2042-03-30", "2042-04-30");
+    }
+
+    @Test
+    void intervalStepsOverOccurrences() throws Exception {
+        create(DATE, "WEEKLY", 2, DATE.plusMonths(6));
+        LocalDate monthly = DATE.plusYears(1);
+        create(monthly, "MONTHLY", 3, null);
+
+        assertThat(dates(DATE, DATE.plusWeeks(5))).containsExactly(
+                DATE.toString(), DATE.plusWeeks(2).toString(), DATE.plusWeeks(4).toString());
+        assertThat(dates(DATE.plusWeeks(1), DATE.plusWeeks(5))).containsExactly(
+                DATE.plusWeeks(2).toString(), DATE.plusWeeks(4).toString());
+        assertThat(dates(monthly.plusMonths(1), monthly.plusMonths(7))).containsExactly(
+                monthly.plusMonths(3).toString(), monthly.plusMonths(6).toString());
+    }
+
+    @Test
+    void untilIsTheLastPossibleOccurrence() throws Exception {
+        create(DATE, "WEEKLY", null, DATE.plusWeeks(2));
+
+        assertThat(dates(DATE, DATE.plusWeeks(4))).containsExactly(
+                DATE.toString(), DATE.plusWeeks(1).toString(), DATE.plusWeeks(2).toString());
+        assertThat(dates(DATE.plusWeeks(2).plusDays(1), DATE.plusWeeks(4))).isEmpty();
+    }
+
+    @Test
+    void skippedOccurrencesAreLeftOut() throws Exception {
+        Long series = create(DATE, "WEEKLY", null, DATE.plusWeeks(3));
+
+        mockMvc.perform(delete("/api/appointments/{appointmentId}/occurrences/{date}", series, DATE.plusWeeks(1)))
+                .andExpect(status().isOk());
+
+        assertThat(dates(DATE, DATE.plusWeeks(3))).containsExactly(
+                DATE.toString(), DATE.plusWeeks(2).toString(), DATE.plusWeeks(3).toString());
+    }
+
+    @Test
+    void skippingADateWithoutOccurrenceIsBadRequest() throws Exception {
+        Long series = create(DATE, "WEEKLY", null, DATE.plusWeeks(3));
+
+        for (LocalDate date : List.of(DATE.plusDays(1), DATE.minusWeeks(1), DATE.plusWeeks(4))) {
+            mockMvc.perform(delete("/api/appointments/{appointmentId}/occurrences/{date}", series, date))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errorCode").value("INVALID_APPOINTMENT_DATA"));
+        }
+        assertThat(dates(DATE, DATE.plusWeeks(3))).hasSize(4);
+    }
+
+    private Long create(LocalDate start, String recurrence, Integer interval, LocalDate until) throws Exception {
+        return TestData.create(mockMvc, userId, """
+                {"name":"Series","description":"Repeats","genre":"work","fromDate":"%s","recurrence":"%s",\
+                "recurrenceInterval":%s,"recurrenceUntil":%s}"""
+                .formatted(start, recurrence, interval, until != null ? "\"" + until + "\"" : null));
+    }
+
+    private List<String> dates(LocalDate from, LocalDate to) throws Exception {
+        String body = mockMvc.perform(get("/api/appointments/user/{userId}/range", userId)
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$[*].fromDate");
+    }
+}
@@ -0,0 +1,192 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.exception.AppointmentConflictException;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import com.ausganslage.ausgangslageBackend.service.ScheduleIndex;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Overlap detection on creation, including concurrent creations and rolled-back deletions, and
+ * free slots from the schedule index
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentScheduleTests {
+    private static final LocalDate DATE = LocalDate.of(2031, 6, 3);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestData.user(userRepository, "schedule").getId();
+    }
+
+    @Test
+    void overlappingCreateIsConflict() throws Exception {
+        create("09:00", "10:00", false).andExpect(status().isCreated());
+
+        create("09:30", "10:30", false)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errorCode").value("APPOINTMENT_CONFLICT"));
+        create("10:00", "11:00", false).andExpect(status().isCreated());
+        create("09:30", "10:30", true).andExpect(status().isCreated());
+        assertThat(appointmentService.getUserAppointmentsByDate(userId, DATE)).hasSize(3);
+    }
+
+    @Test
+    void deletedAppointmentFreesItsSlot() throws Exception {
+        Long id = id(create("09:00", "10:00", false).andExpect(status().isCreated()));
+
+        mockMvc.perform(delete("/api/appointments/{appointmentId}", id))
+                .andExpect(jsonPath("$.deleted").value(1));
+
+        create("09:30", "10:30", false).andExpect(status().isCreated());
+    }
+
+    @Test
+    void rolledBackDeleteKeepsItsSlot() throws Exception {
+        Long id = id(create("09:00", "10:00", false).andExpect(status().isCreated()));
+
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        assertThat(appointmentService.deleteAppointment(id)).isEqualTo(1);
+        transactionManager.rollback(transaction);
+
+        create("09:30", "10:30", false).andExpect(status().isConflict());
+    }
+
+    @Test
+    void lockingADayOutsideATransactionFailsWithoutLocking() throws Exception {
+        assertThatThrownBy(() -> scheduleIndex.lockDay(userId, DATE)).isInstanceOf(IllegalStateException.class);
+
+        // Another thread can still take the day's lock
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> appointmentService.createAppointment(appointment("14:00", "15:00"), userId))
+                    .get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void freeSlotsLieBetweenAppointments() throws Exception {
+        create("09:00", "10:00", false).andExpect(status().isCreated());
+        create("12:00", "13:00", false).andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/appointments/user/{userId}/free-slots", userId)
+                        .param("from", DATE.toString())
+                        .param("to", DATE.toString())
+                        .param("dayStart", "08:00")
+                        .param("dayEnd", "24:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].start").value("08:00"))
+                .andExpect(jsonPath("$[0].end").value("09:00"))
+                .andExpect(jsonPath("$[1].start").value("10:00"))
+                .andExpect(jsonPath("$[1].end").value("12:00"))
+                .andExpect(jsonPath("$[2].start").value("13:00"))
+                .andExpect(jsonPath("$[2].end").value("24:00"));
+    }
+
+    @Test
+    void concurrentCreatesOfOneSlotInsertOnce() throws Exception {
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        int created = 0;
+        int conflicts = 0;
+        try {
+            List<Future<Appointment>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return appointmentService.createAppointment(appointment("14:00", "15:00"), userId);
+                }));
+            }
+            start.countDown();
+
+            for (Future<Appointment> result : results) {
+                try {
+                    result.get();
+                    created++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(AppointmentConflictException.class);
+                    conflicts++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(created).isEqualTo(1);
+        assertThat(conflicts).isEqualTo(requests - 1);
+        assertThat(appointmentService.getUserAppointmentsByDate(userId, DATE)).hasSize(1);
+    }
+
+    private ResultActions create(String fromTime, String toTime, boolean allowOverlap) throws Exception {
+        return mockMvc.perform(post("/api/appointments")
+                .param("userId", userId.toString())
+                .param("allowOverlap", Boolean.toString(allowOverlap))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Meeting\",\"description\":\"Weekly sync\",\"genre\":\"work\",\"fromDate\":\""
+                        + DATE + "\",\"fromTime\":\"" + fromTime + "\",\"toTime\":\"" + toTime + "\"}"));
+    }
+
+    private static Long id(ResultActions result) throws Exception {
+        return ((Number) JsonPath.read(result.andReturn().getResponse().getContentAsString(), "$.id")).longValue();
+    }
+
+    private static Appointment appointment(String fromTime, String toTime) {
+        Appointment appointment = TestData.appointment(null, "Meeting", DATE);
+        appointment.setFromTime(LocalTime.parse(fromTime));
+        appointment.setToTime(LocalTime.parse(toTime));
+        return appointment;
+    }
+}
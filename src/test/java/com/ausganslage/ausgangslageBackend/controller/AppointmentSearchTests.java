@@ -0,0 +1,121 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Search: BM25 ranking with the name weighted highest, every term required with the last one
+ * matched as a prefix, accent folding, and notes edits visible to the next search
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentSearchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestData.user(userRepository, "search").getId();
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatches() throws Exception {
+        Long inDescription = create("Termin", "Zahnarzt Kontrolle", "health");
+        Long inName = create("Zahnarzt", "Kontrolle", "health");
+        create("Friseur", "Schneiden", "care");
+
+        String body = search("zahnarzt")
+                .andExpect(jsonPath("$.total").value(2))
+                .andReturn().getResponse().getContentAsString();
+
+        List<Number> ids = JsonPath.read(body, "$.hits[*].appointment.id");
+        List<Double> scores = JsonPath.read(body, "$.hits[*].score");
+        assertThat(ids).extracting(Number::longValue).containsExactly(inName, inDescription);
+        assertThat(scores.get(0)).isGreaterThan(scores.get(1));
+    }
+
+    @Test
+    void allTermsMustMatchAndOnlyTheLastAsPrefix() throws Exception {
+        Long dentist = create("Zahnarzt", "Kontrolle", "health");
+        Long appointment = create("Termin", "Zahnarzt Kontrolle", "health");
+
+        search("zahn").andExpect(jsonPath("$.total").value(2));
+        search("zahnarzt kontr").andExpect(jsonPath("$.hits[*].appointment.id")
+                .value(containsInAnyOrder(dentist.intValue(), appointment.intValue())));
+        search("zahnarzt termin").andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.hits[0].appointment.id").value(appointment));
+        search("zahn kontrolle").andExpect(jsonPath("$.total").value(0));
+    }
+
+    @Test
+    void accentsAndSharpSAreFolded() throws Exception {
+        Long cafe = create("Café Müller", "Frühstück", "social");
+        Long street = create("Umzug", "Hauptstraße 1", "move");
+
+        search("cafe muller").andExpect(jsonPath("$.hits[0].appointment.id").value(cafe));
+        search("FRÜH").andExpect(jsonPath("$.hits[0].appointment.id").value(cafe));
+        search("hauptstrasse").andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.hits[0].appointment.id").value(street));
+    }
+
+    @Test
+    void notesEditsAreReindexedBeforeTheNextSearch() throws Exception {
+        Long id = create("Physio", "Rücken", "health");
+        search("knie").andExpect(jsonPath("$.total").value(0));
+
+        mockMvc.perform(put("/api/appointments/{appointmentId}/notes", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"notes\":\"Knie mitbringen\"}"))
+                .andExpect(status().isOk());
+        search("knie").andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.hits[0].appointment.id").value(id));
+
+        mockMvc.perform(patch("/api/appointments/{appointmentId}/notes", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baseVersion\":1,\"offset\":0,\"deleteCount\":4,\"text\":\"Schulter\"}"))
+                .andExpect(status().isOk());
+        search("knie").andExpect(jsonPath("$.total").value(0));
+        search("schulter").andExpect(jsonPath("$.hits[0].appointment.id").value(id));
+    }
+
+    @Test
+    void emptyQueryIsRejected() throws Exception {
+        search(" ").andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_APPOINTMENT_DATA"));
+    }
+
+    private ResultActions search(String query) throws Exception {
+        return mockMvc.perform(get("/api/appointments/user/{userId}/search", userId).param("q", query));
+    }
+
+    private Long create(String name, String description, String genre) throws Exception {
+        return TestData.create(mockMvc, userId, """
+                {"name":"%s","description":"%s","genre":"%s","fromDate":"2036-01-15"}"""
+                .formatted(name, description, genre));
+    }
+}
@@ -0,0 +1,152 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.dto.GenreBucketCount;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statistics: the all-time monthly counts kept in the rollup equal a GROUP BY recount over the
+ * appointments after every kind of write
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentStatsTests {
+    private static final LocalDate DATE = LocalDate.of(2037, 3, 30);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestData.user(userRepository, "stats").getId();
+    }
+
+    @Test
+    void rollupMatchesRecountAfterCreates() throws Exception {
+        create("health", DATE, null);
+        create("health", DATE.plusDays(2), null);
+        create("work", DATE.plusDays(1), null);
+        create("sport", DATE, "WEEKLY");
+
+        List<GenreBucketCount> rollup = assertRollupMatchesRecount();
+
+        assertThat(rollup).contains(
+                new GenreBucketCount("health", DATE.withDayOfMonth(1), 1),
+                new GenreBucketCount("health", DATE.plusDays(2).withDayOfMonth(1), 1),
+                new GenreBucketCount("work", DATE.plusDays(1).withDayOfMonth(1), 1),
+                new GenreBucketCount("sport", DATE.withDayOfMonth(1), 1));
+    }
+
+    @Test
+    void rollupMatchesRecountAfterBatchDelete() throws Exception {
+        Long first = create("health", DATE, null);
+        Long series = create("sport", DATE, "WEEKLY");
+        create("health", DATE, null);
+        create("work", DATE.plusDays(3), null);
+
+        mockMvc.perform(post("/api/appointments/batch-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + first + "," + series + "]}"))
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertThat(assertRollupMatchesRecount()).extracting(GenreBucketCount::count).containsOnly(1L);
+    }
+
+    @Test
+    void rollupMatchesRecountAfterRangeDelete() throws Exception {
+        create("health", DATE, null);
+        create("health", DATE.plusDays(1), null);
+        create("work", DATE.plusDays(3), null);
+        create("sport", DATE, "WEEKLY");
+
+        mockMvc.perform(delete("/api/appointments/user/{userId}/range", userId)
+                        .param("from", DATE.toString())
+                        .param("to", DATE.plusDays(1).toString()))
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertThat(assertRollupMatchesRecount()).extracting(GenreBucketCount::genre)
+                .containsExactlyInAnyOrder("work", "sport");
+    }
+
+    @Test
+    void rollupMatchesRecountAfterImport() throws Exception {
+        create("health", DATE, null);
+        String rows = String.join("\n",
+                row("sport", DATE.toString()),
+                row("sport", DATE.plusDays(5).toString()),
+                row("sport", "not-a-date"),
+                row("work", DATE.plusMonths(2).toString()));
+
+        mockMvc.perform(post("/api/appointments/import").param("userId", userId.toString())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(rows))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.failed").value(1));
+
+        assertThat(assertRollupMatchesRecount()).hasSize(4);
+    }
+
+    /**
+     * Compare the rollup (no range) with the grouped count over a range covering every appointment
+     *
+     * @return the rollup counts
+     */
+    private List<GenreBucketCount> assertRollupMatchesRecount() throws Exception {
+        List<GenreBucketCount> rollup = stats(get("/api/appointments/user/{userId}/stats", userId));
+        List<GenreBucketCount> recount = stats(get("/api/appointments/user/{userId}/stats", userId)
+                .param("from", "2000-01-01")
+                .param("to", "2099-12-31"));
+        assertThat(rollup).isNotEmpty().containsExactlyInAnyOrderElementsOf(recount);
+        return rollup;
+    }
+
+    private List<GenreBucketCount> stats(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request.param("bucket", "month"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, new TypeReference<>() {
+        });
+    }
+
+    private Long create(String genre, LocalDate date, String recurrence) throws Exception {
+        String appointment = row(genre, date.toString());
+        if (recurrence != null) {
+            appointment = appointment.replace("}", ",\"recurrence\":\"" + recurrence + "\"}");
+        }
+        return TestData.create(mockMvc, userId, appointment);
+    }
+
+    private static String row(String genre, String fromDate) {
+        return """
+                {"name":"Stats","description":"Counted","genre":"%s","fromDate":"%s"}""".formatted(genre, fromDate);
+    }
+}
@@ -0,0 +1,179 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentChange;
+import com.ausganslage.ausgangslageBackend.dto.AppointmentView;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.service.ChangeFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Change feed delivery over real connections: slow consumers resync, a stalled consumer
+ * neither blocks other subscribers nor keeps its stream, and reconnects resync when they missed events.
+ * Shutdown is immediate: Tomcat keeps counting async requests whose client hung up as in progress.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.feed.buffer-size=4", "app.feed.sender-threads=1", "app.feed.send-timeout=1s",
+        "server.tomcat.connection-timeout=5s", "server.shutdown=immediate" })
+class ChangeFeedTests {
+    private static final LocalDate DATE = LocalDate.of(2031, 7, 1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void burstBeyondTheBufferResyncs() throws Exception {
+        Long userId = createUser();
+        try (EventStream stream = EventStream.open(port, userId, null, 0)) {
+            stream.readUntil("event:ready");
+
+            for (int i = 0; i < 200; i++) {
+                changeFeed.publish(userId, AppointmentChange.changed(DATE, DATE));
+            }
+
+            stream.readUntil("\"reason\":\"buffer-overflow\"");
+        }
+    }
+
+    @Test
+    void stalledConsumerIsClosedWithoutBlockingOthers() throws Exception {
+        Long stalledUserId = createUser();
+        Long userId = createUser();
+        double stalledBefore = meterRegistry.counter("app.feed.stalled").count();
+        try (EventStream stalledStream = EventStream.open(port, stalledUserId, null, 1024);
+                EventStream stream = EventStream.open(port, userId, null, 0)) {
+            stalledStream.readUntil("event:ready");
+            stream.readUntil("event:ready");
+
+            // Never read: the single sender thread blocks once the socket buffers are full
+            AppointmentChange large = AppointmentChange.created(new AppointmentView(1L, "large",
+                    "x".repeat(256 * 1024), DATE, null, null, "test", null, stalledUserId, 0L));
+            long deadline = System.nanoTime() + 15_000_000_000L;
+            while (meterRegistry.counter("app.feed.stalled").count() == stalledBefore) {
+                assertThat(System.nanoTime()).as("stalled subscriber closed").isLessThan(deadline);
+                changeFeed.publish(stalledUserId, large);
+                Thread.sleep(20);
+            }
+
+            changeFeed.publish(userId, AppointmentChange.deleted(7L, DATE));
+            stream.readUntil("event:deleted");
+        }
+    }
+
+    @Test
+    void reconnectAfterMissedEventsResyncs() throws Exception {
+        Long userId = createUser();
+        String lastEventId;
+        try (EventStream stream = EventStream.open(port, userId, null, 0)) {
+            lastEventId = stream.readId("event:ready");
+        }
+        changeFeed.publish(userId, AppointmentChange.deleted(7L, DATE));
+
+        String currentId;
+        try (EventStream stream = EventStream.open(port, userId, lastEventId, 0)) {
+            currentId = stream.readId("event:ready");
+            stream.readUntil("\"reason\":\"missed-events\"");
+        }
+
+        try (EventStream stream = EventStream.open(port, userId, currentId, 0)) {
+            stream.readUntil("event:ready");
+            changeFeed.publish(userId, AppointmentChange.deleted(8L, DATE));
+            assertThat(stream.readUntil("event:deleted")).noneMatch(line -> line.contains("resync"));
+        }
+    }
+
+    private Long createUser() {
+        return TestData.user(userRepository, "feed").getId();
+    }
+
+    /**
+     * A raw HTTP connection to the events endpoint, read line by line
+     */
+    private static final class EventStream implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader reader;
+
+        private EventStream(Socket socket) throws IOException {
+            this.socket = socket;
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        static EventStream open(int port, Long userId, String lastEventId, int receiveBufferSize) throws IOException {
+            Socket socket = new Socket();
+            if (receiveBufferSize > 0) {
+                socket.setReceiveBufferSize(receiveBufferSize);
+            }
+            socket.connect(new InetSocketAddress("localhost", port));
+            socket.setSoTimeout(10_000);
+            StringBuilder request = new StringBuilder("GET /api/appointments/user/" + userId + "/events HTTP/1.1\r\n")
+                    .append("Host: localhost\r\n")
+                    .append("Accept: text/event-stream\r\n");
+            if (lastEventId != null) {
+                request.append("Last-Event-ID: ").append(lastEventId).append("\r\n");
+            }
+            OutputStream out = socket.getOutputStream();
+            out.write(request.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return new EventStream(socket);
+        }
+
+        /**
+         * Lines read up to and including the first one containing marker
+         */
+        List<String> readUntil(String marker) throws IOException {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (line.contains(marker)) {
+                    return lines;
+                }
+            }
+            throw new IOException("Stream ended before " + marker);
+        }
+
+        /**
+         * Id of the first event whose lines contain marker
+         */
+        String readId(String marker) throws IOException {
+            String id = null;
+            for (String line : readUntil(marker)) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                }
+            }
+            return id;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.repository.AppointmentRepository;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Idempotency-Key on appointment creation: repeats, including concurrent ones, create one
+ * appointment and get the first response
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class IdempotencyKeyTests {
+    protected static final String APPOINTMENT = """
+            {"name":"Dentist","description":"Check-up","genre":"health","fromDate":"2031-05-02",\
+            "fromTime":"09:00","toTime":"10:00"}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    protected AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    protected Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestData.user(userRepository, "idempotency").getId();
+    }
+
+    @Test
+    void repeatGetsFirstResponseWithoutInsert() throws Exception {
+        String key = UUID.randomUUID().toString();
+        MockHttpServletResponse first = create(key, APPOINTMENT);
+        assertThat(first.getStatus()).isEqualTo(201);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MockHttpServletResponse repeat = create(key, APPOINTMENT);
+
+        assertThat(repeat.getStatus()).isEqualTo(201);
+        assertThat(repeat.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(appointmentRepository.findViewsByUserId(userId)).hasSize(1);
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        create(key, APPOINTMENT);
+
+        mockMvc.perform(post("/api/appointments").param("userId", userId.toString())
+                        .header(AppointmentController.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(APPOINTMENT.replace("Dentist", "Barber")))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("IDEMPOTENCY_KEY_REUSED"));
+        assertThat(appointmentRepository.findViewsByUserId(userId)).hasSize(1);
+    }
+
+    @Test
+    void concurrentRepeatsInsertOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return create(key, APPOINTMENT);
+                }));
+            }
+            start.countDown();
+
+            String body = responses.get(0).get().getContentAsString();
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertThat(response.get().getStatus()).isEqualTo(201);
+                assertThat(response.get().getContentAsString()).isEqualTo(body);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(appointmentRepository.findViewsByUserId(userId)).hasSize(1);
+    }
+
+    protected MockHttpServletResponse create(String key, String appointment) throws Exception {
+        return mockMvc.perform(post("/api/appointments").param("userId", userId.toString())
+                        .header(AppointmentController.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(appointment))
+                .andReturn().getResponse();
+    }
+}
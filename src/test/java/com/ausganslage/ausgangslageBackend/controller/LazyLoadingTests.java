@@ -0,0 +1,77 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.security.SessionTokenService;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With spring.jpa.open-in-view off no Hibernate session is left for serialization: responses
+ * carry the user id only, and entities handed out have their user loaded already
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class LazyLoadingTests {
+    private static final LocalDate DATE = LocalDate.of(2038, 2, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void createWithTokenAnswersFromTheUnloadedUser() throws Exception {
+        Long userId = TestData.user(userRepository, "lazy").getId();
+        String token = "Bearer " + sessionTokenService.issue(userId).value();
+
+        // The token's user is associated as an uninitialized proxy
+        mockMvc.perform(post("/api/appointments").param("userId", userId.toString())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"name":"Lazy","description":"Lazy","genre":"work","fromDate":"%s"}"""
+                                .formatted(DATE)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.userId").value(userId))
+                .andExpect(jsonPath("$.user").doesNotExist());
+    }
+
+    @Test
+    void appointmentByIdSerializesWithItsUser() throws Exception {
+        UserAccount user = TestData.user(userRepository, "lazy");
+        Long id = appointmentService.createAppointment(TestData.appointment(null, "Lazy", DATE), user.getId()).getId();
+
+        Appointment appointment = appointmentService.getAppointmentById(id);
+
+        String json = objectMapper.writeValueAsString(appointment);
+        assertThat((String) JsonPath.read(json, "$.user.username")).isEqualTo(user.getUsername());
+    }
+}
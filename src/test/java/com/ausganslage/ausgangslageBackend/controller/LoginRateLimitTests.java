@@ -0,0 +1,163 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.exception.RateLimitedException;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.security.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login rate limiting: an empty bucket is answered 429 with Retry-After before the user is
+ * looked up, clients and accounts have separate buckets, and a successful login refills the
+ * account's bucket
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.auth.rate-limit.address.limit=4", "app.auth.rate-limit.address.burst=4",
+        "app.auth.rate-limit.address.period=1h",
+        "app.auth.rate-limit.username.limit=2", "app.auth.rate-limit.username.burst=2",
+        "app.auth.rate-limit.username.period=1h" })
+@AutoConfigureMockMvc
+class LoginRateLimitTests {
+    private static final String PASSWORD = "login123";
+    private static final AtomicInteger ADDRESSES = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String username;
+
+    @BeforeEach
+    void createUser() {
+        username = TestData.user(userRepository, "login").getUsername();
+    }
+
+    @Test
+    void emptyAccountBucketIsRejectedBeforeTheLookup() throws Exception {
+        String address = newAddress();
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+        Statistics statistics = clearedStatistics();
+
+        String retryAfter = login(address, username, PASSWORD)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.errorCode").value("RATE_LIMITED"))
+                .andReturn().getResponse().getHeader(HttpHeaders.RETRY_AFTER);
+
+        // Two attempts per hour: the next one is due half an hour after the first
+        assertThat(Long.parseLong(retryAfter)).isBetween(1790L, 1800L);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void accountLimitHoldsForEveryClient() throws Exception {
+        String address = newAddress();
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+
+        login(newAddress(), username, PASSWORD).andExpect(status().isTooManyRequests());
+        UserAccount other = TestData.user(userRepository, "login");
+        login(address, other.getUsername(), PASSWORD).andExpect(status().isOk());
+    }
+
+    @Test
+    void clientLimitHoldsForEveryAccount() throws Exception {
+        String address = newAddress();
+        for (int i = 0; i < 4; i++) {
+            login(address, "nobody-" + address + "-" + i, PASSWORD).andExpect(status().isUnauthorized());
+        }
+
+        login(address, username, PASSWORD).andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.errorCode").value("RATE_LIMITED"));
+        login(newAddress(), username, PASSWORD).andExpect(status().isOk());
+    }
+
+    @Test
+    void attemptsAtALockedAccountLeaveTheClientsBucket() throws Exception {
+        String address = newAddress();
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+        for (int i = 0; i < 5; i++) {
+            login(address, username, "wrong").andExpect(status().isTooManyRequests());
+        }
+
+        UserAccount other = TestData.user(userRepository, "login");
+        login(address, other.getUsername(), PASSWORD).andExpect(status().isOk());
+    }
+
+    @Test
+    void successfulLoginRefillsTheAccount() throws Exception {
+        String address = newAddress();
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+        login(address, username, PASSWORD).andExpect(status().isOk());
+
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+        login(address, username, "wrong").andExpect(status().isUnauthorized());
+        login(address, username, PASSWORD).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void disabledLimiterLetsEveryAttemptThrough() throws Exception {
+        LoginRateLimiter enabled = limiter(true);
+        enabled.acquire("192.0.2.1", "someone");
+        assertThatThrownBy(() -> enabled.acquire("192.0.2.1", "someone")).isInstanceOf(RateLimitedException.class);
+
+        LoginRateLimiter disabled = limiter(false);
+        for (int i = 0; i < 10; i++) {
+            disabled.acquire("192.0.2.1", "someone");
+        }
+    }
+
+    private static LoginRateLimiter limiter(boolean enabled) {
+        return new LoginRateLimiter(enabled, 1, 1, Duration.ofHours(1), 1, 1, Duration.ofHours(1), 100,
+                new SimpleMeterRegistry());
+    }
+
+    private ResultActions login(String address, String username, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(address);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"username":"%s","password":"%s"}""".formatted(username, password)));
+    }
+
+    private static String newAddress() {
+        return "198.51.100." + ADDRESSES.incrementAndGet();
+    }
+
+    private Statistics clearedStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Prometheus scrape after real requests: error responses are counted per errorCode and status,
+ * and the endpoint and service timers are exported with their latency distributions
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsScrapeTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void requestsShowUpInTheScrape() throws Exception {
+        Long userId = TestData.user(userRepository, "metrics").getId();
+        List<String> before = scrape();
+
+        mockMvc.perform(get("/api/appointments/user/{userId}", userId)).andExpect(status().isOk());
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/appointments").param("userId", userId.toString())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"description\":\"No name\",\"genre\":\"work\",\"fromDate\":\"2040-01-01\"}"))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/api/appointments/user/{userId}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        List<String> after = scrape();
+        assertThat(errors(after, "INVALID_APPOINTMENT_DATA", 400) - errors(before, "INVALID_APPOINTMENT_DATA", 400))
+                .isEqualTo(2);
+        assertThat(errors(after, "USER_NOT_FOUND", 404) - errors(before, "USER_NOT_FOUND", 404)).isEqualTo(1);
+        assertThat(after).anyMatch(line -> line.startsWith("http_server_requests_seconds_bucket{")
+                && line.contains("uri=\"/api/appointments/user/{userId}\"") && line.contains("le=\"+Inf\""));
+        assertThat(after).anyMatch(line -> line.startsWith("app_service_seconds{")
+                && line.contains("method=\"getUserAppointments\"") && line.contains("quantile=\"0.99\""));
+        assertThat(after).anyMatch(line -> line.startsWith("app_service_seconds_count{")
+                && line.contains("method=\"createAppointment\""));
+    }
+
+    private List<String> scrape() throws Exception {
+        String body = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Arrays.asList(body.split("\n"));
+    }
+
+    private static double errors(List<String> scrape, String errorCode, int status) {
+        return scrape.stream()
+                .filter(line -> line.startsWith("app_errors_total{")
+                        && line.contains("errorCode=\"" + errorCode + "\"")
+                        && line.contains("status=\"" + status + "\""))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .sum();
+    }
+}
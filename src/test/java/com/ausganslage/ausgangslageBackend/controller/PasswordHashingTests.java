@@ -0,0 +1,110 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.exception.AuthenticationUnavailableException;
+import com.ausganslage.ausgangslageBackend.model.UserAccount;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.security.PasswordHasher;
+import com.ausganslage.ausgangslageBackend.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Password hashing on login: plaintext rows and hashes below the configured cost are replaced
+ * on success, wrong passwords get 401, and logins beyond the verification pool are turned away
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordHashingTests {
+    private static final String CURRENT_COST = "$2a$10$";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void plaintextRowIsRehashedOnLogin() throws Exception {
+        UserAccount user = TestData.user(userRepository, "legacy");
+
+        login(user.getUsername(), "legacy12").andExpect(status().isUnauthorized());
+        assertThat(storedPassword(user)).isEqualTo("legacy123");
+
+        login(user.getUsername(), "legacy123").andExpect(status().isOk());
+        assertThat(storedPassword(user)).startsWith(CURRENT_COST);
+        login(user.getUsername(), "legacy123").andExpect(status().isOk());
+    }
+
+    @Test
+    void lowerCostHashIsUpgradedOnLogin() throws Exception {
+        UserAccount user = TestData.user(userRepository, "cheap");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("cheap123"));
+        userRepository.save(user);
+
+        login(user.getUsername(), "cheap123").andExpect(status().isOk());
+
+        String upgraded = storedPassword(user);
+        assertThat(upgraded).startsWith(CURRENT_COST);
+        login(user.getUsername(), "cheap123").andExpect(status().isOk());
+        assertThat(storedPassword(user)).isEqualTo(upgraded);
+    }
+
+    @Test
+    void wrongPasswordForHashIsUnauthorized() throws Exception {
+        UserAccount user = TestData.user(userRepository, "hashed");
+        String hash = new BCryptPasswordEncoder(10).encode("hashed123");
+        user.setPassword(hash);
+        userRepository.save(user);
+
+        login(user.getUsername(), "hashed124")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_CREDENTIALS"));
+        assertThat(storedPassword(user)).isEqualTo(hash);
+    }
+
+    @Test
+    void fullVerificationPoolIsUnavailable() throws Exception {
+        UserAccount user = TestData.user(userRepository, "busy");
+        // Cost 14 keeps the single worker busy for far longer than the 100ms timeout
+        user.setPassword("$2a$14$" + "a".repeat(53));
+        userRepository.save(user);
+        PasswordHasher hasher = new PasswordHasher(4, 1, 1, Duration.ofMillis(100));
+        UserService userService = new UserService(userRepository, hasher);
+
+        // Runs, then waits in the queue; neither leaves when its caller gives up
+        assertThatThrownBy(() -> userService.authenticate(user.getUsername(), "busy123"))
+                .isInstanceOf(AuthenticationUnavailableException.class);
+        assertThatThrownBy(() -> userService.authenticate(user.getUsername(), "busy123"))
+                .isInstanceOf(AuthenticationUnavailableException.class);
+
+        assertThatThrownBy(() -> userService.authenticate(user.getUsername(), "busy123"))
+                .isInstanceOf(AuthenticationUnavailableException.class)
+                .hasMessageContaining("Too many concurrent logins");
+    }
+
+    private ResultActions login(String username, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"username":"%s","password":"%s"}""".formatted(username, password)));
+    }
+
+    private String storedPassword(UserAccount user) {
+        return userRepository.findById(user.getId()).orElseThrow().getPassword();
+    }
+}
@@ -0,0 +1,130 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.TestData;
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.repository.UserRepository;
+import com.ausganslage.ausgangslageBackend.security.SessionTokenService;
+import com.ausganslage.ausgangslageBackend.service.AppointmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Session tokens only grant access to their own user's data, and stop working once the user is gone
+ */
+@SpringBootTest(properties = "app.auth.token.required=true")
+@AutoConfigureMockMvc
+class SessionTokenTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    private Long userId;
+    private Long otherUserId;
+    private String token;
+
+    @BeforeEach
+    void createUsers() {
+        userId = createUser();
+        otherUserId = createUser();
+        token = "Bearer " + sessionTokenService.issue(userId).value();
+    }
+
+    @Test
+    void ownDataIsReadable() throws Exception {
+        mockMvc.perform(get("/api/appointments/user/{userId}", userId).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void otherUsersPathIsForbidden() throws Exception {
+        mockMvc.perform(get("/api/appointments/user/{userId}", otherUserId).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.errorCode").value("ACCESS_DENIED"));
+    }
+
+    @Test
+    void otherUsersQueryParameterIsForbidden() throws Exception {
+        mockMvc.perform(post("/api/appointments").param("userId", otherUserId.toString())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"name":"Intruder","description":"x","genre":"x","fromDate":"2031-05-02"}"""))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.errorCode").value("ACCESS_DENIED"));
+        assertThat(appointmentService.getUserAppointments(otherUserId)).isEmpty();
+    }
+
+    @Test
+    void otherUsersAppointmentCannotBeDeleted() throws Exception {
+        Appointment appointment = TestData.appointment(null, "Dentist", LocalDate.of(2031, 5, 2));
+        Long appointmentId = appointmentService.createAppointment(appointment, otherUserId).getId();
+
+        mockMvc.perform(delete("/api/appointments/{id}", appointmentId).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.errorCode").value("ACCESS_DENIED"));
+        assertThat(appointmentService.getUserAppointments(otherUserId)).hasSize(1);
+    }
+
+    @Test
+    void tokenOfDeletedUserIsRejected() throws Exception {
+        Long deletedUserId = createUser();
+        String deletedUserToken = "Bearer " + sessionTokenService.issue(deletedUserId).value();
+        userRepository.deleteById(deletedUserId);
+
+        mockMvc.perform(get("/api/appointments/user/{userId}", deletedUserId)
+                        .header(HttpHeaders.AUTHORIZATION, deletedUserToken))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_SESSION_TOKEN"));
+    }
+
+    @Test
+    void missingTokenIsRejectedWithJson() throws Exception {
+        mockMvc.perform(get("/api/appointments/user/{userId}", userId))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Session token required"));
+    }
+
+    @Test
+    void keyIdWithDotIsRejected(@TempDir Path directory) throws Exception {
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        Path keysFile = Files.writeString(directory.resolve("keys.properties"),
+                "active-key=k.1\nkey.k.1=" + secret + "\n");
+
+        assertThatThrownBy(() -> new SessionTokenService(Duration.ofHours(1), keysFile.toString(), ""))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private Long createUser() {
+        return TestData.user(userRepository, "session").getId();
+    }
+}
@@ -0,0 +1,62 @@
+package com.ausganslage.ausgangslageBackend.controller;
+
+import com.ausganslage.ausgangslageBackend.model.Appointment;
+import com.ausganslage.ausgangslageBackend.repository.IdempotencyRecordRepository;
+import com.ausganslage.ausgangslageBackend.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IdempotencyKeyTests with keys recorded in idempotency_keys
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.idempotency.store=table", "app.idempotency.wait=1s", "app.idempotency.lease=5s" })
+class TableIdempotencyKeyTests extends IdempotencyKeyTests {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void claimOfCrashedInstanceIsTakenOverAfterLease() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String fingerprint = "claimed by an instance that died";
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.claim(userId, key,
+                fingerprint, Instant.now().minus(Duration.ofMinutes(1))));
+
+        MockHttpServletResponse response = create(key, APPOINTMENT);
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(appointmentRepository.findViewsByUserId(userId)).hasSize(1);
+    }
+
+    @Test
+    void runningClaimWithinLeaseIsInProgress() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String fingerprint = idempotencyService.fingerprint(
+                new Object[] { objectMapper.readValue(APPOINTMENT, Appointment.class), false });
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.claim(userId, key,
+                fingerprint, Instant.now()));
+
+        assertThat(create(key, APPOINTMENT).getStatus()).isEqualTo(409);
+        assertThat(appointmentRepository.findViewsByUserId(userId)).isEmpty();
+    }
+}